@@ -62,4 +62,12 @@ dependencies {
     implementation("com.google.firebase:firebase-analytics")
     // Notificaciones push (FCM).
     implementation("com.google.firebase:firebase-messaging")
+
+    // Tests unitarios en la JVM (clases Java puras: cálculo del resumen, parseo JSON).
+    testImplementation("junit:junit:4.13.2")
+    // Tests instrumentados (medición de jank con MonitorJank en dispositivo).
+    // Línea androidx.test 1.6: las 1.7+ piden compileSdk 35 y aquí se compila con 34.
+    androidTestImplementation("androidx.test.ext:junit:1.2.1")
+    androidTestImplementation("androidx.test:core:1.6.1")
+    androidTestImplementation("androidx.test:runner:1.6.2")
 }
@@ -0,0 +1,123 @@
+package com.example.trabajoapi;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.trabajoapi.data.FichajeResponse;
+import com.example.trabajoapi.data.diagnostico.MetricasRed;
+import com.example.trabajoapi.data.diagnostico.MonitorJank;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Medición (no test de regresión) del scroll de la lista de fichajes con 5.000 filas.
+ *
+ * Monta FichajeAdapter con 5k fichajes sintéticos en ListaPruebaActivity (solo debug), lo vigila
+ * con MonitorJank y lo recorre entero a base de flings a velocidad máxima. Al acabar deja en logcat
+ * (tag "Jank5k") n/p50/p95/p99/max de los frames de "pantalla jank5k"; MonitorJank añade por cada
+ * gesto cuántos frames pasaron de 17 ms (tag "Jank").
+ *
+ * Los tiempos dependen del dispositivo, así que no se aserta ningún límite y queda fuera de la suite:
+ * sin el argumento medirJank=true se salta. Se lanza en un móvil real, pantalla encendida y desbloqueada:
+ *   ./gradlew connectedDebugAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.example.trabajoapi.MedicionJankFichajes \
+ *       -Pandroid.testInstrumentationRunnerArguments.medirJank=true
+ *   adb logcat -s Jank5k Jank
+ *
+ * No toca la sesión ni las preferencias; sí reinicia las métricas de MetricasRed (como el botón
+ * de la pantalla de diagnóstico) para que el informe sea solo de esta pasada.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MedicionJankFichajes {
+
+    private static final String TAG = "Jank5k";
+    private static final int FILAS = 5_000;
+    private static final String PANTALLA = "jank5k";
+
+    // Tope de flings por si el dispositivo no llegara nunca al final de la lista.
+    private static final int MAX_FLINGS = 300;
+
+    @Test
+    public void scrollDe5000Filas() throws Exception {
+        assumeTrue("Medición: se lanza con -e medirJank true",
+                "true".equals(InstrumentationRegistry.getArguments().getString("medirJank")));
+
+        MetricasRed.reiniciar();
+
+        try (ActivityScenario<ListaPruebaActivity> scenario = ActivityScenario.launch(ListaPruebaActivity.class)) {
+            final RecyclerView[] lista = new RecyclerView[1];
+            final CountDownLatch cargada = new CountDownLatch(1);
+
+            scenario.onActivity(activity -> {
+                RecyclerView rv = activity.getLista();
+                FichajeAdapter adapter = new FichajeAdapter();
+                rv.setAdapter(adapter);
+                MonitorJank.vigilar(rv, PANTALLA);
+                adapter.setLista(fichajesSinteticos(FILAS), cargada::countDown);
+                lista[0] = rv;
+            });
+            assertTrue("la lista no se cargó", cargada.await(30, TimeUnit.SECONDS));
+
+            int flings = 0;
+            while (flings < MAX_FLINGS && flingHastaParar(scenario, lista[0])) flings++;
+
+            Log.i(TAG, String.format(Locale.US, "%d filas, %d flings hasta el final", FILAS, flings));
+            for (String linea : MetricasRed.informe().split("\n")) Log.i(TAG, linea);
+        }
+    }
+
+    // Lanza un fling hacia abajo y espera a que la lista se pare; false si ya estaba al final.
+    private static boolean flingHastaParar(ActivityScenario<ListaPruebaActivity> scenario, RecyclerView rv)
+            throws InterruptedException {
+        final CountDownLatch parada = new CountDownLatch(1);
+        final boolean[] lanzado = new boolean[1];
+
+        final RecyclerView.OnScrollListener alParar = new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) parada.countDown();
+            }
+        };
+
+        scenario.onActivity(activity -> {
+            if (!rv.canScrollVertically(1)) return;
+            rv.addOnScrollListener(alParar);
+            lanzado[0] = rv.fling(0, rv.getMaxFlingVelocity());
+            if (!lanzado[0]) rv.removeOnScrollListener(alParar);
+        });
+        if (!lanzado[0]) return false;
+
+        boolean parado = parada.await(10, TimeUnit.SECONDS);
+        scenario.onActivity(activity -> rv.removeOnScrollListener(alParar));
+        return parado;
+    }
+
+    // Fichajes alternos ENTRADA/SALIDA, uno cada ~4 horas, con coordenadas distintas en cada fila.
+    private static List<FichajeResponse> fichajesSinteticos(int n) {
+        List<FichajeResponse> out = new ArrayList<>(n);
+        long inicioMs = 1_767_225_600_000L; // 2026-01-01T00:00:00Z
+        for (int i = 0; i < n; i++) {
+            long ms = inicioMs + i * 4L * 3_600_000L + (i % 60) * 60_000L;
+            String fecha = String.format(Locale.US, "%tFT%<tT", new Date(ms));
+            out.add(new FichajeResponse(n - i, i % 2 == 0 ? "ENTRADA" : "SALIDA", fecha,
+                    40.4 + (i % 97) / 1000.0, -3.7 - (i % 89) / 1000.0));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.trabajoapi;
+
+import android.os.Bundle;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Pantalla vacía con una sola lista, solo en builds debug.
+ *
+ * La usan los tests instrumentados para medir listas sin pasar por login ni sesión:
+ * no lee ni escribe preferencias y el test pone el adaptador que quiera medir.
+ */
+public class ListaPruebaActivity extends AppCompatActivity {
+
+    private RecyclerView lista;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        if (getSupportActionBar() != null) getSupportActionBar().hide();
+
+        lista = new RecyclerView(this);
+        lista.setLayoutManager(new LinearLayoutManager(this));
+        setContentView(lista);
+    }
+
+    public RecyclerView getLista() {
+        return lista;
+    }
+}
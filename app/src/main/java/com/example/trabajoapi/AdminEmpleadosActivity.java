@@ -2,8 +2,11 @@ package com.example.trabajoapi;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
@@ -17,7 +20,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.trabajoapi.data.FichajeResponse;
 import com.example.trabajoapi.data.SessionManager;
-import com.example.trabajoapi.data.TrabajadorResponse;
+import com.example.trabajoapi.data.diagnostico.MonitorJank;
 import com.example.trabajoapi.data.repository.AdminRepository;
 import com.example.trabajoapi.ui.admin.empleados.AdminEmpleadosViewModel;
 import com.example.trabajoapi.ui.admin.empleados.AdminEmpleadosViewModelFactory;
@@ -29,6 +32,7 @@ public class AdminEmpleadosActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private ProgressBar progressBar;
     private SessionManager sessionManager;
+    private EmpleadoAdapter adapter;
 
     private AdminEmpleadosViewModel vm;
 
@@ -47,7 +51,18 @@ public class AdminEmpleadosActivity extends AppCompatActivity {
         ImageView btnVolver = findViewById(R.id.btnVolverLista);
         if (btnVolver != null) btnVolver.setOnClickListener(v -> finish());
 
+        // Un único adapter para toda la pantalla: cada lista nueva (o filtrada) se aplica con diff.
+        adapter = new EmpleadoAdapter(empleado -> {
+            Intent intent = new Intent(AdminEmpleadosActivity.this, AdminVerFichajesActivity.class);
+
+            intent.putExtra("ID_EMPLEADO", empleado.getIdTrabajador());
+            intent.putExtra("NOMBRE_EMPLEADO", empleado.getNombreCompleto());
+
+            startActivity(intent);
+        });
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setAdapter(adapter);
+        MonitorJank.vigilar(recyclerView, "AdminEmpleadosActivity");
 
         // Monta el VM que se encarga de pedir empleados y emitir eventos.
         vm = new ViewModelProvider(
@@ -57,14 +72,28 @@ public class AdminEmpleadosActivity extends AppCompatActivity {
 
         observarVM();
 
-        String token = sessionManager.getAuthToken();
-        if (token == null) {
+        // Filtra mientras se escribe (nombre, apellidos, NIF, email o rol).
+        EditText etBuscar = findViewById(R.id.etBuscarEmpleado);
+        etBuscar.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                vm.buscar(s.toString());
+            }
+        });
+
+        if (sessionManager.getAuthToken() == null) {
             irALogin();
             return;
         }
 
         progressBar.setVisibility(View.VISIBLE);
-        vm.cargarEmpleados("Bearer " + token);
+        vm.cargarEmpleados();
     }
 
     // Vincula carga, lista y mensajes del VM con la UI.
@@ -76,7 +105,7 @@ public class AdminEmpleadosActivity extends AppCompatActivity {
 
         vm.getEmpleados().observe(this, empleados -> {
             if (empleados == null) return;
-            pintarLista(empleados);
+            adapter.setLista(empleados);
         });
 
         vm.getToastEvent().observe(this, e -> {
@@ -100,21 +129,6 @@ public class AdminEmpleadosActivity extends AppCompatActivity {
         });
     }
 
-    // Pinta la lista y delega el click para abrir el historial del empleado.
-    private void pintarLista(List<TrabajadorResponse> empleados) {
-        EmpleadoAdapter adapter = new EmpleadoAdapter(empleados, empleado -> {
-
-            Intent intent = new Intent(AdminEmpleadosActivity.this, AdminVerFichajesActivity.class);
-
-            intent.putExtra("ID_EMPLEADO", empleado.getIdTrabajador());
-            intent.putExtra("NOMBRE_EMPLEADO", empleado.getNombreCompleto());
-
-            startActivity(intent);
-        });
-
-        recyclerView.setAdapter(adapter);
-    }
-
     // Mantiene el diálogo por si el VM aún emite este flujo en alguna ruta.
     private void mostrarDialogoFichajesEmpleado(String nombreEmpleado, List<FichajeResponse> lista) {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
@@ -127,12 +141,7 @@ public class AdminEmpleadosActivity extends AppCompatActivity {
             for (int i = 0; i < lista.size(); i++) {
                 FichajeResponse f = lista.get(i);
 
-                String rawFecha = f.getFechaHora();
-                String fechaLimpia = "Sin fecha";
-                if (rawFecha != null) {
-                    fechaLimpia = rawFecha.replace("T", " ");
-                    if (fechaLimpia.length() > 16) fechaLimpia = fechaLimpia.substring(0, 16);
-                }
+                String fechaLimpia = f.getFechaTexto() != null ? f.getFechaTexto() : "Sin fecha";
 
                 String tipo = (f.getTipo() != null ? f.getTipo() : "REGISTRO");
                 items[i] = tipo + "\n" + fechaLimpia;
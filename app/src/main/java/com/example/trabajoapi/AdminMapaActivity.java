@@ -106,10 +106,9 @@ public class AdminMapaActivity extends AppCompatActivity {
                         mostrarToastPop("Selecciona una ubicación primero", false);
                         return;
                     }
-                    String token = sessionManager.getAuthToken();
-                    if (token == null) { irALogin(); return; }
+                    if (sessionManager.getAuthToken() == null) { irALogin(); return; }
 
-                    vm.guardarConfiguracion("Bearer " + token,
+                    vm.guardarConfiguracion(
                             ubicacionActual.getLatitude(),
                             ubicacionActual.getLongitude(),
                             radioActual
@@ -123,9 +122,8 @@ public class AdminMapaActivity extends AppCompatActivity {
 
             observarVM();
 
-            String token = sessionManager.getAuthToken();
-            if (token == null) { irALogin(); return; }
-            vm.cargarConfiguracion("Bearer " + token);
+            if (sessionManager.getAuthToken() == null) { irALogin(); return; }
+            vm.cargarConfiguracion();
 
         } catch (Exception e) {
             Log.e("AdminMapa", "Error fatal en onCreate", e);
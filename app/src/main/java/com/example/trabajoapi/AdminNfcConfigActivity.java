@@ -7,7 +7,6 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.example.trabajoapi.data.SessionManager;
 import com.example.trabajoapi.data.repository.AdminRepository;
 import com.example.trabajoapi.nfc.NfcFichajeController;
 import com.google.android.material.button.MaterialButton;
@@ -19,7 +18,6 @@ import retrofit2.Response;
 public class AdminNfcConfigActivity extends AppCompatActivity implements NfcFichajeController.Listener {
 
     private NfcFichajeController nfcController;
-    private SessionManager sessionManager;
     private AdminRepository repository;
 
     private TextView tvEstado;
@@ -35,7 +33,6 @@ public class AdminNfcConfigActivity extends AppCompatActivity implements NfcFich
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_admin_nfc_config);
 
-        sessionManager = new SessionManager(this);
         repository = new AdminRepository();
         nfcController = new NfcFichajeController(this);
 
@@ -114,8 +111,7 @@ public class AdminNfcConfigActivity extends AppCompatActivity implements NfcFich
         btnGuardar.setEnabled(false);
         btnGuardar.setText("Guardando...");
 
-        String token = sessionManager.getAuthToken();
-        repository.updateEmpresaNfc("Bearer " + token, codigoLeidoActual, new Callback<Void>() {
+        repository.updateEmpresaNfc(codigoLeidoActual, new Callback<Void>() {
             @Override
             public void onResponse(Call<Void> call, Response<Void> response) {
                 if (response.isSuccessful()) {
@@ -14,6 +14,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.trabajoapi.data.SessionManager;
+import com.example.trabajoapi.data.diagnostico.MonitorJank;
 import com.example.trabajoapi.data.repository.AdminRepository;
 import com.example.trabajoapi.ui.admin.empleados.AdminFichajesViewModel;
 import com.example.trabajoapi.ui.admin.empleados.AdminFichajesViewModelFactory;
@@ -23,6 +24,7 @@ public class AdminVerFichajesActivity extends AppCompatActivity {
     private AdminFichajesViewModel viewModel;
     private SessionManager sessionManager;
     private FichajeAdapter adapter;
+    private PaginacionScrollListener paginacion;
 
     private ProgressBar progressBar;
     private RecyclerView recyclerView;
@@ -55,19 +57,23 @@ public class AdminVerFichajesActivity extends AppCompatActivity {
         if (nombre != null) tvNombreEmpleado.setText(nombre);
         btnVolver.setOnClickListener(v -> finish());
 
-        // Monta la lista con su adapter.
-        adapter = new FichajeAdapter();
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        recyclerView.setAdapter(adapter);
-
-        // Conecta el VM con el repositorio y enlaza observadores.
+        // Conecta el VM con el repositorio.
         AdminFichajesViewModelFactory factory = new AdminFichajesViewModelFactory(new AdminRepository());
         viewModel = new ViewModelProvider(this, factory).get(AdminFichajesViewModel.class);
 
+        // Monta la lista con su adapter; al acercarse al final pide la siguiente página.
+        adapter = new FichajeAdapter();
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+        paginacion = new PaginacionScrollListener(layoutManager, viewModel::cargarMas);
+        recyclerView.addOnScrollListener(paginacion);
+        MonitorJank.vigilar(recyclerView, "AdminVerFichajesActivity");
+
         observarViewModel();
 
-        // Dispara la carga con el token actual.
-        viewModel.cargarHistorial("Bearer " + sessionManager.getAuthToken(), idEmpleado);
+        // Dispara la carga (el token lo añade AuthInterceptor).
+        viewModel.cargarHistorial(idEmpleado);
     }
 
     // Refleja el estado de carga, renderiza resultados y gestiona el retorno al login si aplica.
@@ -86,7 +92,7 @@ public class AdminVerFichajesActivity extends AppCompatActivity {
             if (lista != null && !lista.isEmpty()) {
                 recyclerView.setVisibility(View.VISIBLE);
                 tvEmpty.setVisibility(View.GONE);
-                adapter.setLista(lista);
+                adapter.setLista(lista, paginacion::comprobar);
             } else {
                 recyclerView.setVisibility(View.GONE);
                 tvEmpty.setVisibility(View.VISIBLE);
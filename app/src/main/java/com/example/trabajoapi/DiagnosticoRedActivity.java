@@ -0,0 +1,54 @@
+package com.example.trabajoapi;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.trabajoapi.data.diagnostico.MetricasRed;
+
+/**
+ * Pantalla oculta (pulsación larga en el título de Main) con las latencias de red por endpoint.
+ * Permite exportar el JSON de histogramas para analizarlo fuera o reiniciar la medición.
+ */
+public class DiagnosticoRedActivity extends AppCompatActivity {
+
+    private TextView tvInforme;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        if (getSupportActionBar() != null) getSupportActionBar().hide();
+        setContentView(R.layout.activity_diagnostico_red);
+
+        tvInforme = findViewById(R.id.tvInformeRed);
+        findViewById(R.id.btnVolverDiagnostico).setOnClickListener(v -> finish());
+
+        // Comparte el JSON con cualquier app (correo, Drive, chat...).
+        findViewById(R.id.btnExportarMetricas).setOnClickListener(v -> {
+            Intent enviar = new Intent(Intent.ACTION_SEND);
+            enviar.setType("application/json");
+            enviar.putExtra(Intent.EXTRA_SUBJECT, "Métricas de red TrabajoApi");
+            enviar.putExtra(Intent.EXTRA_TEXT, MetricasRed.exportarJson());
+            startActivity(Intent.createChooser(enviar, "Exportar métricas"));
+        });
+
+        findViewById(R.id.btnReiniciarMetricas).setOnClickListener(v -> {
+            MetricasRed.reiniciar();
+            pintarInforme();
+            Toast.makeText(this, "Métricas reiniciadas", Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        pintarInforme();
+    }
+
+    private void pintarInforme() {
+        tvInforme.setText(MetricasRed.informe());
+    }
+}
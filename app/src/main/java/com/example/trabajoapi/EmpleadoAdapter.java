@@ -7,24 +7,53 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.trabajoapi.data.Rol;
 import com.example.trabajoapi.data.TrabajadorResponse;
 import java.util.List;
 
+/**
+ * Lista de empleados. Se crea una vez por pantalla y setLista la actualiza con diff
+ * (AsyncListDiffer), así que filtrar mientras se escribe no reconstruye la lista entera.
+ */
 public class EmpleadoAdapter extends RecyclerView.Adapter<EmpleadoAdapter.ViewHolder> {
 
-    private List<TrabajadorResponse> lista;
-    private OnItemClickListener listener;
+    private static final ColorStateList FONDO_ADMIN = ColorStateList.valueOf(Color.BLACK);
+    private static final ColorStateList FONDO_TRABAJADOR = ColorStateList.valueOf(Color.parseColor("#00BCD4"));
+
+    private static final DiffUtil.ItemCallback<TrabajadorResponse> DIFF = new DiffUtil.ItemCallback<TrabajadorResponse>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull TrabajadorResponse a, @NonNull TrabajadorResponse b) {
+            return a.getIdTrabajador() == b.getIdTrabajador();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull TrabajadorResponse a, @NonNull TrabajadorResponse b) {
+            return a.getNombreCompleto().equals(b.getNombreCompleto())
+                    && a.getNif().equals(b.getNif())
+                    && a.getRol() == b.getRol();
+        }
+    };
+
+    private final AsyncListDiffer<TrabajadorResponse> differ = new AsyncListDiffer<>(this, DIFF);
+    private final OnItemClickListener listener;
 
     // Permite reaccionar al click de un empleado desde la pantalla que use el adapter.
     public interface OnItemClickListener {
         void onItemClick(TrabajadorResponse empleado);
     }
 
-    // Recibe la lista a pintar y el callback para el click.
-    public EmpleadoAdapter(List<TrabajadorResponse> lista, OnItemClickListener listener) {
-        this.lista = lista;
+    // Recibe el callback para el click; la lista llega después con setLista.
+    public EmpleadoAdapter(OnItemClickListener listener) {
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    // Sustituye la lista; el diff se calcula en segundo plano y solo se animan los cambios.
+    public void setLista(List<TrabajadorResponse> nuevaLista) {
+        differ.submitList(nuevaLista);
     }
 
     @NonNull
@@ -38,19 +67,19 @@ public class EmpleadoAdapter extends RecyclerView.Adapter<EmpleadoAdapter.ViewHo
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        TrabajadorResponse item = lista.get(position);
+        TrabajadorResponse item = differ.getCurrentList().get(position);
 
         holder.tvNombre.setText(item.getNombreCompleto());
         holder.tvNif.setText(item.getNif());
 
-        String rol = item.getRol();
-        holder.tvRol.setText(rol.toUpperCase());
+        Rol rol = item.getRol();
+        holder.tvRol.setText(rol.getEtiqueta());
 
         // Marca el rol con un fondo distinto para diferenciar administradores del resto.
-        if (rol.equalsIgnoreCase("Administrador") || rol.contains("Admin") || rol.contains("admin")) {
-            holder.tvRol.setBackgroundTintList(ColorStateList.valueOf(Color.BLACK));
+        if (rol.esAdministrador()) {
+            holder.tvRol.setBackgroundTintList(FONDO_ADMIN);
         } else {
-            holder.tvRol.setBackgroundTintList(ColorStateList.valueOf(Color.parseColor("#00BCD4")));
+            holder.tvRol.setBackgroundTintList(FONDO_TRABAJADOR);
         }
 
         // Propaga el click del item hacia fuera sin acoplar la lógica aquí.
@@ -59,9 +88,14 @@ public class EmpleadoAdapter extends RecyclerView.Adapter<EmpleadoAdapter.ViewHo
         });
     }
 
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).getIdTrabajador();
+    }
+
     @Override
     public int getItemCount() {
-        return lista.size();
+        return differ.getCurrentList().size();
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
@@ -1,5 +1,7 @@
 package com.example.trabajoapi;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -7,24 +9,82 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.trabajoapi.data.FichajeResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Lista de fichajes con filas precalculadas.
+ *
+ * setLista construye en segundo plano las filas ya formateadas (FilaFichaje) y AsyncListDiffer
+ * calcula qué ha cambiado: tras un fichaje nuevo solo se anima la fila insertada.
+ * onBindViewHolder se limita a asignar textos, colores e iconos ya resueltos.
+ */
 public class FichajeAdapter extends RecyclerView.Adapter<FichajeAdapter.ViewHolder> {
 
-    private List<FichajeResponse> lista = new ArrayList<>();
+    // Un hilo basta: las listas se preparan en orden y solo cuenta la última.
+    private static final ExecutorService PRECALCULO = Executors.newSingleThreadExecutor();
 
-    // Sustituye la lista actual y refresca el RecyclerView.
+    private static final DiffUtil.ItemCallback<FilaFichaje> DIFF = new DiffUtil.ItemCallback<FilaFichaje>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FilaFichaje a, @NonNull FilaFichaje b) {
+            return a.id == b.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FilaFichaje a, @NonNull FilaFichaje b) {
+            return a.mismoContenido(b);
+        }
+    };
+
+    private final AsyncListDiffer<FilaFichaje> differ = new AsyncListDiffer<>(this, DIFF);
+    private final Handler principal = new Handler(Looper.getMainLooper());
+
+    // Descarta listas preparadas que ya ha sustituido otra más reciente (solo hilo principal).
+    private int generacion = 0;
+
+    // Colores resueltos una vez; 0 = aún no resueltos.
+    private int colorEntrada = 0;
+    private int colorSalida = 0;
+
+    public FichajeAdapter() {
+        setHasStableIds(true);
+    }
+
+    // Sustituye la lista actual; el cambio se aplica (con animación) cuando está preparado.
     public void setLista(List<FichajeResponse> nuevaLista) {
-        this.lista = nuevaLista;
-        notifyDataSetChanged();
+        setLista(nuevaLista, null);
+    }
+
+    // Igual, avisando en el hilo principal cuando la lista nueva ya está en pantalla.
+    public void setLista(List<FichajeResponse> nuevaLista, Runnable alAplicar) {
+        final int miGeneracion = ++generacion;
+        final List<FichajeResponse> copia = new ArrayList<>(nuevaLista);
+
+        PRECALCULO.execute(() -> {
+            List<FilaFichaje> filas = new ArrayList<>(copia.size());
+            for (FichajeResponse f : copia) filas.add(new FilaFichaje(f));
+
+            principal.post(() -> {
+                if (miGeneracion != generacion) return;
+                differ.submitList(filas, alAplicar);
+            });
+        });
     }
 
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (colorEntrada == 0) {
+            colorEntrada = ContextCompat.getColor(parent.getContext(), R.color.pop_green);
+            colorSalida = ContextCompat.getColor(parent.getContext(), R.color.pop_pink);
+        }
+
         // Infla el layout del item propio para renderizar cada fichaje.
         View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_fichaje, parent, false);
         return new ViewHolder(v);
@@ -32,31 +92,54 @@ public class FichajeAdapter extends RecyclerView.Adapter<FichajeAdapter.ViewHold
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        FichajeResponse item = lista.get(position);
-
-        String fecha = item.getFechaHora() != null ? item.getFechaHora().replace("T", " ") : "---";
-        if (fecha.length() > 16) fecha = fecha.substring(0, 16);
-
-        String tipo = item.getTipo() != null ? item.getTipo().toUpperCase() : "REGISTRO";
-
-        holder.tvTipo.setText(tipo);
-        holder.tvFecha.setText(fecha);
+        FilaFichaje fila = differ.getCurrentList().get(position);
 
-        // Muestra coordenadas de forma compacta para que no ensucie el item.
-        holder.tvUbi.setText(String.format("Lat: %.4f, Lon: %.4f", item.getLatitud(), item.getLongitud()));
+        holder.tvTipo.setText(fila.tipo);
+        holder.tvFecha.setText(fila.fecha);
+        holder.tvUbi.setText(fila.ubicacion);
 
         // Ajusta color e icono para distinguir entrada/salida de un vistazo.
-        if ("ENTRADA".equals(tipo)) {
-            holder.tvTipo.setTextColor(ContextCompat.getColor(holder.itemView.getContext(), R.color.pop_green));
+        if (fila.entrada) {
+            holder.tvTipo.setTextColor(colorEntrada);
             holder.imgIcon.setImageResource(R.drawable.ic_fichaje_entrada);
         } else {
-            holder.tvTipo.setTextColor(ContextCompat.getColor(holder.itemView.getContext(), R.color.pop_pink));
+            holder.tvTipo.setTextColor(colorSalida);
             holder.imgIcon.setImageResource(R.drawable.ic_fichaje_salida);
         }
     }
 
     @Override
-    public int getItemCount() { return lista.size(); }
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).id;
+    }
+
+    @Override
+    public int getItemCount() { return differ.getCurrentList().size(); }
+
+    /**
+     * Fila inmutable con todo lo que se pinta ya formateado.
+     * Se construye fuera del hilo principal.
+     */
+    static final class FilaFichaje {
+        final int id;
+        final String tipo;
+        final String fecha;
+        final String ubicacion;
+        final boolean entrada;
+
+        FilaFichaje(FichajeResponse f) {
+            this.id = f.getId();
+            this.tipo = f.getTipo() != null ? f.getTipo().toUpperCase() : "REGISTRO";
+            this.fecha = f.getFechaTexto() != null ? f.getFechaTexto() : "---";
+            // Muestra coordenadas de forma compacta para que no ensucie el item.
+            this.ubicacion = String.format("Lat: %.4f, Lon: %.4f", f.getLatitud(), f.getLongitud());
+            this.entrada = "ENTRADA".equals(tipo);
+        }
+
+        boolean mismoContenido(FilaFichaje o) {
+            return entrada == o.entrada && tipo.equals(o.tipo) && fecha.equals(o.fecha) && ubicacion.equals(o.ubicacion);
+        }
+    }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvTipo, tvFecha, tvUbi;
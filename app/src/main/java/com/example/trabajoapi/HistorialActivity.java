@@ -8,16 +8,16 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
-import com.example.trabajoapi.data.SessionManager;
+import com.example.trabajoapi.data.diagnostico.MonitorJank;
 import com.example.trabajoapi.ui.main.HistorialViewModel;
 
 public class HistorialActivity extends AppCompatActivity {
 
     private HistorialViewModel viewModel;
-    private SessionManager sessionManager;
     private FichajeAdapter adapter;
     private ProgressBar progressBar;
     private RecyclerView recyclerView;
+    private PaginacionScrollListener paginacion;
 
     // Monta la lista de fichajes, conecta el adapter y dispara la carga inicial.
     @Override
@@ -25,7 +25,6 @@ public class HistorialActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_historial_propio);
 
-        sessionManager = new SessionManager(this);
         viewModel = new ViewModelProvider(this).get(HistorialViewModel.class);
 
         // Enlaza la UI y deja listo el botón de vuelta.
@@ -33,16 +32,20 @@ public class HistorialActivity extends AppCompatActivity {
         progressBar = findViewById(R.id.progressHistorial);
         findViewById(R.id.btnVolverHistorial).setOnClickListener(v -> finish());
 
-        // Configura RecyclerView con su layout y adapter.
+        // Configura RecyclerView con su layout y adapter; al acercarse al final pide la siguiente página.
         adapter = new FichajeAdapter();
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(adapter);
+        paginacion = new PaginacionScrollListener(layoutManager, viewModel::cargarMas);
+        recyclerView.addOnScrollListener(paginacion);
+        MonitorJank.vigilar(recyclerView, "HistorialActivity");
 
         // Refleja en pantalla carga, lista y mensajes del VM.
         observarViewModel();
 
-        // Lanza la petición con el token actual.
-        viewModel.cargarMisFichajes("Bearer " + sessionManager.getAuthToken());
+        // Lanza la petición (el token lo añade AuthInterceptor).
+        viewModel.cargarMisFichajes();
     }
 
     // Escucha cambios del VM para actualizar progreso, lista y mensajes.
@@ -52,7 +55,8 @@ public class HistorialActivity extends AppCompatActivity {
         });
 
         viewModel.getFichajes().observe(this, lista -> {
-            if (lista != null) adapter.setLista(lista);
+            if (lista == null) return;
+            adapter.setLista(lista, paginacion::comprobar);
         });
 
         viewModel.getToastEvent().observe(this, event -> {
@@ -0,0 +1,125 @@
+package com.example.trabajoapi;
+
+import android.graphics.Color;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.trabajoapi.data.IncidenciaResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historial de incidencias (vacaciones, ausencias...) con filas recicladas.
+ *
+ * Los textos de cada fila se montan una vez en setLista y el estilo de cada estado
+ * (etiqueta y color de fondo) está resuelto de antemano: el bind solo asigna.
+ */
+public class IncidenciaAdapter extends RecyclerView.Adapter<IncidenciaAdapter.ViewHolder> {
+
+    // Estilo fijo por estado; el color se parsea una sola vez para toda la app.
+    enum EstiloEstado {
+        PENDIENTE("⏳ PENDIENTE", Color.parseColor("#FEF9C3")),
+        APROBADA("✅ APROBADA", Color.parseColor("#DCFCE7")),
+        RECHAZADA("❌ RECHAZADA", Color.parseColor("#FEE2E2"));
+
+        final String etiqueta;
+        final int colorFondo;
+
+        EstiloEstado(String etiqueta, int colorFondo) {
+            this.etiqueta = etiqueta;
+            this.colorFondo = colorFondo;
+        }
+
+        static EstiloEstado de(String estado) {
+            if ("APROBADA".equalsIgnoreCase(estado)) return APROBADA;
+            if ("RECHAZADA".equalsIgnoreCase(estado)) return RECHAZADA;
+            return PENDIENTE;
+        }
+    }
+
+    // Las incidencias no traen id: se identifican por tipo y fechas.
+    private static final DiffUtil.ItemCallback<FilaIncidencia> DIFF = new DiffUtil.ItemCallback<FilaIncidencia>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FilaIncidencia a, @NonNull FilaIncidencia b) {
+            return a.cabeceraTipo.equals(b.cabeceraTipo) && a.fechas.equals(b.fechas);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FilaIncidencia a, @NonNull FilaIncidencia b) {
+            return a.estilo == b.estilo && a.cabecera.equals(b.cabecera)
+                    && (a.comentario == null ? b.comentario == null : a.comentario.equals(b.comentario));
+        }
+    };
+
+    private final AsyncListDiffer<FilaIncidencia> differ = new AsyncListDiffer<>(this, DIFF);
+
+    // Sustituye la lista; el diff se calcula en segundo plano y alAplicar se llama cuando ya está en pantalla.
+    public void setLista(List<IncidenciaResponse> nuevaLista, Runnable alAplicar) {
+        List<FilaIncidencia> filas = new ArrayList<>(nuevaLista.size());
+        for (IncidenciaResponse inc : nuevaLista) filas.add(new FilaIncidencia(inc));
+        differ.submitList(filas, alAplicar);
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_incidencia, parent, false);
+        return new ViewHolder(v);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        FilaIncidencia fila = differ.getCurrentList().get(position);
+
+        holder.tvCabecera.setText(fila.cabecera);
+        holder.tvCabecera.setBackgroundColor(fila.estilo.colorFondo);
+        holder.tvFechas.setText(fila.fechas);
+
+        // El comentario del admin solo aparece si lo hay.
+        if (fila.comentario != null) {
+            holder.tvComentario.setText(fila.comentario);
+            holder.tvComentario.setVisibility(View.VISIBLE);
+        } else {
+            holder.tvComentario.setVisibility(View.GONE);
+        }
+    }
+
+    @Override
+    public int getItemCount() { return differ.getCurrentList().size(); }
+
+    /**
+     * Fila inmutable con los textos ya montados.
+     */
+    static final class FilaIncidencia {
+        final String cabeceraTipo;
+        final String cabecera;
+        final String fechas;
+        final String comentario;
+        final EstiloEstado estilo;
+
+        FilaIncidencia(IncidenciaResponse inc) {
+            this.estilo = EstiloEstado.de(inc.getEstado());
+            this.cabeceraTipo = String.valueOf(inc.getTipo());
+            this.cabecera = cabeceraTipo + "\n" + estilo.etiqueta;
+            this.fechas = "📅 " + inc.getFechaInicio() + " -> " + inc.getFechaFin();
+            String admin = inc.getComentarioAdmin();
+            this.comentario = admin != null && !admin.isEmpty() ? "💬 Admin: " + admin : null;
+        }
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        TextView tvCabecera, tvFechas, tvComentario;
+
+        ViewHolder(View v) {
+            super(v);
+            tvCabecera = v.findViewById(R.id.tvCabeceraIncidencia);
+            tvFechas = v.findViewById(R.id.tvFechasIncidencia);
+            tvComentario = v.findViewById(R.id.tvComentarioIncidencia);
+        }
+    }
+}
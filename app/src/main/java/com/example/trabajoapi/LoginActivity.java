@@ -18,9 +18,11 @@ import androidx.lifecycle.ViewModelProvider;
 import com.example.trabajoapi.data.LoginResponse;
 import com.example.trabajoapi.data.RetrofitClient;
 import com.example.trabajoapi.data.SessionManager;
+import com.example.trabajoapi.data.TokenHolder;
 import com.example.trabajoapi.data.repository.AuthRepository;
 import com.example.trabajoapi.ui.login.LoginViewModel;
 import com.example.trabajoapi.ui.login.LoginViewModelFactory;
+import com.example.trabajoapi.work.TrabajadorRenovarTokenScheduler;
 
 public class LoginActivity extends AppCompatActivity {
 
@@ -35,10 +37,24 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        sessionManager = new SessionManager(this);
+
+        // Sesión guardada y utilizable según el "exp" del JWT (leído en local, sin red), o caducada pero
+        // con refresh token para renovarla: directo a Main, que pinta con su caché, sin inflar el login.
+        if (sessionManager.sesionUtilizable()) {
+            abrirMain(null);
+            overridePendingTransition(0, 0);
+            return;
+        }
+
+        // Token guardado pero ya caducado y sin forma de renovarlo: se descarta aquí en vez de descubrirlo con un 401.
+        if (TokenHolder.get() != null) sessionManager.clearSession();
+
         if (getSupportActionBar() != null) getSupportActionBar().hide();
         setContentView(R.layout.activity_login);
 
-        sessionManager = new SessionManager(this);
+        // Abre la conexión con el servidor mientras el usuario escribe sus credenciales.
+        RetrofitClient.precalentar();
 
         // Vincula los campos del layout con las referencias de la Activity.
         etNif = findViewById(R.id.etNifLogin);
@@ -104,21 +120,26 @@ public class LoginActivity extends AppCompatActivity {
             LoginResponse r = e.getContentIfNotHandled();
             if (r == null) return;
 
-            // Guarda sesión y salta al flujo principal limpiando el backstack.
+            // Guarda sesión y salta al flujo principal.
             sessionManager.saveSession(r);
+            TrabajadorRenovarTokenScheduler.programar(getApplicationContext());
+            abrirMain(r);
+        });
+    }
 
-            Intent intent = new Intent(LoginActivity.this, MainActivity.class);
-            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+    // Abre Main limpiando el backstack; con respuesta de login, le pasa el aviso si lo trae.
+    private void abrirMain(LoginResponse r) {
+        Intent intent = new Intent(LoginActivity.this, MainActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
 
-            // Si viene un aviso con el login, lo envía para que se muestre al entrar.
-            if (r.getRecordatorio() != null && r.getRecordatorio().isAvisar()) {
-                intent.putExtra("AVISO_TITULO", r.getRecordatorio().getTitulo());
-                intent.putExtra("AVISO_MENSAJE", r.getRecordatorio().getMensaje());
-            }
+        // Si viene un aviso con el login, lo envía para que se muestre al entrar.
+        if (r != null && r.getRecordatorio() != null && r.getRecordatorio().isAvisar()) {
+            intent.putExtra("AVISO_TITULO", r.getRecordatorio().getTitulo());
+            intent.putExtra("AVISO_MENSAJE", r.getRecordatorio().getMensaje());
+        }
 
-            startActivity(intent);
-            finish();
-        });
+        startActivity(intent);
+        finish();
     }
 
     // Pide un email y lanza la petición de recuperación a través del VM.
@@ -5,6 +5,8 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.res.ColorStateList;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.InputType;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -22,6 +24,8 @@ import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.work.Constraints;
 import androidx.work.ExistingPeriodicWorkPolicy;
 import androidx.work.NetworkType;
@@ -30,21 +34,29 @@ import androidx.work.WorkManager;
 
 import com.example.trabajoapi.data.FichajeResponse;
 import com.example.trabajoapi.data.IncidenciaHelper;
-import com.example.trabajoapi.data.IncidenciaResponse;
 import com.example.trabajoapi.data.RecordatorioResponse;
+import com.example.trabajoapi.data.ResumenResponse;
 import com.example.trabajoapi.data.RetrofitClient;
 import com.example.trabajoapi.data.SessionManager;
+import com.example.trabajoapi.data.diagnostico.MonitorJank;
+import com.example.trabajoapi.data.diagnostico.TrazaArranque;
 import com.example.trabajoapi.data.repository.IncidenciaRepository;
 import com.example.trabajoapi.data.repository.MainRepository;
 import com.example.trabajoapi.nfc.NfcFichajeController;
 import com.example.trabajoapi.ui.incidencia.IncidenciaViewModel;
 import com.example.trabajoapi.ui.incidencia.IncidenciaViewModelFactory;
+import com.example.trabajoapi.ui.main.EstadoDashboard;
+import com.example.trabajoapi.ui.main.HistorialViewModel;
 import com.example.trabajoapi.ui.main.MainViewModel;
 import com.example.trabajoapi.ui.main.MainViewModelFactory;
+import com.example.trabajoapi.work.TrabajadorFichajesPendientesScheduler;
 import com.example.trabajoapi.work.TrabajadorRecordatorio;
+import com.example.trabajoapi.work.TrabajadorRenovarTokenScheduler;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.location.Priority;
+import com.google.android.material.bottomsheet.BottomSheetBehavior;
+import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.android.material.button.MaterialButton;
 
 import java.util.List;
@@ -70,6 +82,9 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
     private static final int PERMISSION_REQUEST_CODE = 112; // Notificaciones (Android 13+)
     private static final int PERMISSION_ID = 44;            // Ubicación (GPS)
 
+    // Nombre de la pantalla en las trazas de arranque
+    private static final String PANTALLA = "MainActivity";
+
     // Nombre único del worker periódico de recordatorios
     private static final String WORK_UNIQUE_NAME = "recordatorio_fichaje_bg";
 
@@ -104,19 +119,55 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
     // Helper UI para incidencias (diálogos/toasts)
     private IncidenciaHelper incidenciaHelper;
 
-    // ViewModel de incidencias (crear / historial)
+    // ViewModel de incidencias (crear / historial); se crea al primer uso, no en el arranque
     private IncidenciaViewModel ivm;
 
+    // Diálogo de historial de incidencias; solo existe mientras está abierto
+    private IncidenciaHelper.DialogoHistorial dialogoIncidencias;
+
+    // Historial propio paginado (lo usa la hoja de "Mis últimos fichajes"); se crea al primer uso
+    private HistorialViewModel hvm;
+
+    // Hoja de últimos fichajes; solo existe mientras está abierta
+    private BottomSheetDialog hojaHistorial;
+    private FichajeAdapter adapterHistorial;
+    private PaginacionScrollListener paginacionHistorial;
+    private TextView tvHistorialVacio;
+    private View progressHistorialDialogo;
+
     // Controlador NFC desacoplado de la Activity
     private NfcFichajeController nfcController;
 
+    // Trabajo de arranque que espera al primer frame (permisos, workers, FCM)
+    private TareasDiferidas tareasDiferidas;
+
+    // Último resumen pintado en la card: los cambios de solo dentro/fuera no la repintan
+    private ResumenResponse resumenPintado;
+    private boolean sinDatosPintado;
+
+    // Mantiene caliente la conexión HTTP mientras la pantalla está en primer plano (el tap de fichar no paga handshake)
+    private static final long INTERVALO_MANTENER_CONEXION_MS = 45_000L;
+    private final Handler handlerConexion = new Handler(Looper.getMainLooper());
+    private final Runnable mantenerConexion = new Runnable() {
+        @Override
+        public void run() {
+            RetrofitClient.precalentar();
+            handlerConexion.postDelayed(this, INTERVALO_MANTENER_CONEXION_MS);
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        final long inicioOnCreate = TrazaArranque.empezar(PANTALLA, "onCreate");
         super.onCreate(savedInstanceState);
 
         // Ocultamos ActionBar para usar la UI custom de la app
+        long t = TrazaArranque.empezar(PANTALLA, "layout");
         if (getSupportActionBar() != null) getSupportActionBar().hide();
         setContentView(R.layout.activity_main);
+        TrazaArranque.terminar(PANTALLA, "layout", t);
+
+        // La conexión con el servidor se precalienta en onResume (mantenerConexion), no hace falta repetirlo aquí
 
         // Inicialización de utilidades de sesión y ubicación
         sessionManager = new SessionManager(this);
@@ -125,17 +176,13 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
         // Inicialización del controlador NFC
         nfcController = new NfcFichajeController(this);
 
-        // ViewModel principal (dashboard/fichajes)
+        // ViewModel principal (dashboard/fichajes); los de incidencias e historial esperan a usarse
+        t = TrazaArranque.empezar(PANTALLA, "viewmodel");
         vm = new ViewModelProvider(
                 this,
-                new MainViewModelFactory(new MainRepository())
+                new MainViewModelFactory(new MainRepository(getApplicationContext()))
         ).get(MainViewModel.class);
-
-        // ViewModel de incidencias
-        ivm = new ViewModelProvider(
-                this,
-                new IncidenciaViewModelFactory(new IncidenciaRepository())
-        ).get(IncidenciaViewModel.class);
+        TrazaArranque.terminar(PANTALLA, "viewmodel", t);
 
         // Helper visual para incidencias
         incidenciaHelper = new IncidenciaHelper(this);
@@ -174,9 +221,8 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
         if (btnIncidencia != null) {
             btnIncidencia.setOnClickListener(v -> {
                 incidenciaHelper.mostrarDialogoNuevaIncidencia((tipo, inicio, fin, comentario) -> {
-                    String token = sessionManager.getAuthToken();
-                    if (token == null) { irALogin(); return; }
-                    ivm.crearIncidencia("Bearer " + token, tipo, inicio, fin, comentario);
+                    if (sessionManager.getAuthToken() == null) { irALogin(); return; }
+                    incidencias().crearIncidencia(tipo, inicio, fin, comentario);
                 });
             });
         }
@@ -184,18 +230,16 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
         // Historial de incidencias
         if (btnHistorial != null) {
             btnHistorial.setOnClickListener(v -> {
-                String token = sessionManager.getAuthToken();
-                if (token == null) { irALogin(); return; }
-                ivm.cargarHistorial("Bearer " + token);
+                if (sessionManager.getAuthToken() == null) { irALogin(); return; }
+                mostrarHistorialIncidencias();
             });
         }
 
         // Historial de fichajes (últimos fichajes)
         if (btnMisFichajes != null) {
             btnMisFichajes.setOnClickListener(v -> {
-                String token = sessionManager.getAuthToken();
-                if (token == null) { irALogin(); return; }
-                vm.pedirHistorialParaDialogo("Bearer " + token);
+                if (sessionManager.getAuthToken() == null) { irALogin(); return; }
+                mostrarDialogoHistorialFichajes();
             });
         }
 
@@ -204,6 +248,15 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
             btnCambiarClave.setOnClickListener(v -> mostrarDialogoCambioPassword());
         }
 
+        // Acceso oculto a la pantalla de diagnóstico de red (pulsación larga en el título)
+        TextView tvTitulo = findViewById(R.id.tvTituloMain);
+        if (tvTitulo != null) {
+            tvTitulo.setOnLongClickListener(v -> {
+                startActivity(new Intent(MainActivity.this, DiagnosticoRedActivity.class));
+                return true;
+            });
+        }
+
         // Logout seguro: intenta revocar token en servidor y luego limpia sesión local
         if (btnLogout != null) {
             btnLogout.setOnClickListener(v -> cerrarSesionSegura());
@@ -221,33 +274,40 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
             }
         }
 
-        // Si llegamos desde Login con un aviso, lo preparamos (título/mensaje)
-        prepararAvisoLoginSiExiste();
-
-        // Pedimos permisos de notificaciones si aplica y mostramos aviso pendiente si procede
-        pedirPermisosNotificaciones();
-        intentarMostrarAvisoPendiente();
-
-        // Si ya hay sesión activa, programamos recordatorio periódico en background
-        if (sessionManager.getAuthToken() != null) {
-            scheduleRecordatorioWorker();
-        }
-
-        // Observadores LiveData (VM principal e incidencias)
+        // Observadores LiveData del VM principal (estado de fichaje y resumen)
+        t = TrazaArranque.empezar(PANTALLA, "observadores");
         observarVM();
-        observarIncidenciasVM();
+        TrazaArranque.terminar(PANTALLA, "observadores", t);
+
+        // Lo que no hace falta para pintar ni para fichar se ejecuta tras el primer frame,
+        // una tarea por cada hueco libre del hilo principal.
+        tareasDiferidas = new TareasDiferidas(PANTALLA)
+                // Aviso traído desde Login y permiso de notificaciones
+                .agregar("avisos", () -> {
+                    prepararAvisoLoginSiExiste();
+                    pedirPermisosNotificaciones();
+                    intentarMostrarAvisoPendiente();
+                })
+                // Recordatorio periódico en background y vaciado de fichajes que quedaron sin conexión
+                .agregar("workers", () -> {
+                    if (sessionManager.getAuthToken() == null) return;
+                    scheduleRecordatorioWorker();
+                    TrabajadorFichajesPendientesScheduler.programar(this);
+                    TrabajadorRenovarTokenScheduler.programar(this);
+                })
+                // Registramos/actualizamos token FCM del dispositivo en backend
+                .agregar("fcm", this::enviarTokenFCM);
+        TrazaArranque.alPrimerFrame(this, PANTALLA, inicioOnCreate, tareasDiferidas::iniciar);
 
-        // Registramos/actualizamos token FCM del dispositivo en backend
-        enviarTokenFCM();
+        TrazaArranque.terminar(PANTALLA, "onCreate", inicioOnCreate);
     }
 
     @Override
     protected void onResume() {
         super.onResume();
 
-        // Si no hay token local, mandamos a login
-        String token = sessionManager.getAuthToken();
-        if (token == null) {
+        // Sin token, o caducado según su "exp" y sin refresh token para renovarlo, a login sin esperar al 401
+        if (!sessionManager.sesionUtilizable()) {
             irALogin();
             return;
         }
@@ -255,13 +315,13 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
         // Reactivamos lectura NFC al volver a primer plano
         if (nfcController != null) nfcController.onResume(this);
 
-        // Mantenemos worker activo mientras hay sesión
-        scheduleRecordatorioWorker();
+        // Conexión caliente mientras la pantalla esté visible
+        handlerConexion.removeCallbacks(mantenerConexion);
+        handlerConexion.post(mantenerConexion);
 
-        // Refresco de dashboard y comprobación de recordatorio al volver a la pantalla
-        String bearer = "Bearer " + token;
-        vm.cargarDashboard(bearer);
-        vm.comprobarRecordatorio(bearer);
+        // Refresco de dashboard (estado de fichaje, resumen y recordatorio) al volver a la pantalla.
+        // El worker de recordatorios ya queda programado en el arranque (política UPDATE): no se reprograma aquí.
+        vm.cargarDashboard();
     }
 
     @Override
@@ -270,6 +330,17 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
 
         // Pausamos lectura NFC al salir de primer plano
         if (nfcController != null) nfcController.onPause(this);
+
+        // Fuera de primer plano no tiene sentido mantener la conexión
+        handlerConexion.removeCallbacks(mantenerConexion);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        // Si la pantalla se cierra antes de acabar el arranque diferido, lo pendiente se descarta
+        if (tareasDiferidas != null) tareasDiferidas.cancelar();
     }
 
     // =========================
@@ -308,63 +379,27 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
 
     private void observarVM() {
 
-        // Estado de fichaje actual (dentro/fuera) -> actualiza botón principal
-        vm.getDentro().observe(this, this::actualizarBotonFichaje);
-
-        // Resumen mensual (horas teóricas, trabajadas, saldo, fiabilidad del cálculo)
-        vm.getResumen().observe(this, r -> {
+        // Estado del dashboard, publicado de una vez: botón principal (dentro/fuera) y card de resumen
+        vm.getDashboard().observe(this, estado -> {
+            actualizarBotonFichaje(estado.isDentro());
 
-            // Reinicio visual antes de pintar el nuevo estado
-            tvHorasExtraValor.setText("...");
-            tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.black));
-            tvEstadoHoras.setText("CALCULANDO...");
-
-            if (tvBadgeRevision != null) tvBadgeRevision.setVisibility(View.GONE);
-            if (tvInfoRevision != null) tvInfoRevision.setVisibility(View.GONE);
-
-            // Sin datos (respuesta nula)
+            ResumenResponse r = estado.getResumen();
             if (r == null) {
-                tvHorasExtraValor.setText("+0.00 h");
-                tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.black));
-                tvEstadoHoras.setText("SIN DATOS DEL MES");
+                // Ni servidor ni cálculo local tienen resumen: en vez de "CALCULANDO..." para siempre.
+                if (estado.isCargado() && !sinDatosPintado) pintarSinDatos();
                 return;
             }
-
-            // Calculo no confiable (faltan fichajes/pares completos)
-            if (!r.isCalculoConfiable()) {
-                tvHorasExtraValor.setText("+0.00 h");
-                tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.pop_yellow));
-                tvEstadoHoras.setText("PENDIENTE DE REVISIÓN");
-
-                if (tvBadgeRevision != null) tvBadgeRevision.setVisibility(View.VISIBLE);
-                if (tvInfoRevision != null) tvInfoRevision.setVisibility(View.VISIBLE);
-                return;
-            }
-
-            // Calculo confiable -> mostramos saldo positivo como horas extra
-            double saldo = r.getSaldo();
-            double extra = Math.max(0.0, saldo);
-
-            tvHorasExtraValor.setText(String.format("+%.2f h", extra));
-
-            if (extra > 0.0) {
-                tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.pop_green));
-                tvEstadoHoras.setText("HORAS EXTRA ACUMULADAS");
-            } else {
-                tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.black));
-                if (saldo < 0) {
-                    tvEstadoHoras.setText("SIN HORAS EXTRA (MES EN NEGATIVO)");
-                } else {
-                    tvEstadoHoras.setText("AÚN NO HAY HORAS EXTRA ESTE MES");
-                }
-            }
+            if (r == resumenPintado) return;
+            resumenPintado = r;
+            sinDatosPintado = false;
+            pintarResumen(r);
         });
 
         // Click en card de resumen -> abre detalle completo
         if (cardHorasExtra != null) {
             cardHorasExtra.setOnClickListener(v -> {
-                com.example.trabajoapi.data.ResumenResponse res = vm.getResumen().getValue();
-                if (res != null) mostrarDetalleResumen(res);
+                EstadoDashboard estado = vm.getDashboard().getValue();
+                if (estado != null && estado.getResumen() != null) mostrarDetalleResumen(estado.getResumen());
             });
         }
 
@@ -410,14 +445,6 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
             }
         });
 
-        // Historial de fichajes para mostrar en diálogo simple
-        vm.getHistorialDialogEvent().observe(this, e -> {
-            if (e == null) return;
-            List<FichajeResponse> lista = e.getContentIfNotHandled();
-            if (lista == null) return;
-            mostrarDialogoHistorialFichajes(lista);
-        });
-
         // Evento de logout forzado desde VM (token inválido, sesión caducada, etc.)
         vm.getLogoutEvent().observe(this, e -> {
             if (e == null) return;
@@ -426,10 +453,59 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
         });
     }
 
+    // Card de resumen cuando el mes no tiene datos.
+    private void pintarSinDatos() {
+        sinDatosPintado = true;
+        if (tvBadgeRevision != null) tvBadgeRevision.setVisibility(View.GONE);
+        if (tvInfoRevision != null) tvInfoRevision.setVisibility(View.GONE);
+
+        tvHorasExtraValor.setText("+0.00 h");
+        tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.black));
+        tvEstadoHoras.setText("SIN DATOS DEL MES");
+    }
+
+    /**
+     * Pinta la card de resumen mensual (horas teóricas, trabajadas, saldo, fiabilidad del cálculo).
+     */
+    private void pintarResumen(ResumenResponse r) {
+        // Reinicio de los avisos de revisión antes de pintar el nuevo estado
+        if (tvBadgeRevision != null) tvBadgeRevision.setVisibility(View.GONE);
+        if (tvInfoRevision != null) tvInfoRevision.setVisibility(View.GONE);
+
+        // Calculo no confiable (faltan fichajes/pares completos)
+        if (!r.isCalculoConfiable()) {
+            tvHorasExtraValor.setText("+0.00 h");
+            tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.pop_yellow));
+            tvEstadoHoras.setText("PENDIENTE DE REVISIÓN");
+
+            if (tvBadgeRevision != null) tvBadgeRevision.setVisibility(View.VISIBLE);
+            if (tvInfoRevision != null) tvInfoRevision.setVisibility(View.VISIBLE);
+            return;
+        }
+
+        // Calculo confiable -> mostramos saldo positivo como horas extra
+        double saldo = r.getSaldo();
+        double extra = Math.max(0.0, saldo);
+
+        tvHorasExtraValor.setText(String.format("+%.2f h", extra));
+
+        if (extra > 0.0) {
+            tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.pop_green));
+            tvEstadoHoras.setText("HORAS EXTRA ACUMULADAS");
+        } else {
+            tvHorasExtraValor.setTextColor(ContextCompat.getColor(this, R.color.black));
+            if (saldo < 0) {
+                tvEstadoHoras.setText("SIN HORAS EXTRA (MES EN NEGATIVO)");
+            } else {
+                tvEstadoHoras.setText("AÚN NO HAY HORAS EXTRA ESTE MES");
+            }
+        }
+    }
+
     /**
      * Muestra un diálogo con el detalle del resumen mensual.
      */
-    private void mostrarDetalleResumen(com.example.trabajoapi.data.ResumenResponse r) {
+    private void mostrarDetalleResumen(ResumenResponse r) {
         if (r == null) return;
 
         StringBuilder sb = new StringBuilder();
@@ -479,6 +555,52 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
     // Observadores ViewModel de incidencias
     // =========================
 
+    /**
+     * ViewModel de incidencias; se crea (y se observa) la primera vez que se necesita.
+     */
+    private IncidenciaViewModel incidencias() {
+        if (ivm == null) {
+            ivm = new ViewModelProvider(
+                    this,
+                    new IncidenciaViewModelFactory(new IncidenciaRepository())
+            ).get(IncidenciaViewModel.class);
+            observarIncidenciasVM();
+        }
+        return ivm;
+    }
+
+    /**
+     * ViewModel del historial paginado; se crea (y se observa) al abrir la hoja por primera vez.
+     */
+    private HistorialViewModel historial() {
+        if (hvm == null) {
+            hvm = new ViewModelProvider(this).get(HistorialViewModel.class);
+            observarHistorialVM();
+        }
+        return hvm;
+    }
+
+    private void observarHistorialVM() {
+        // Historial paginado: solo se pinta si la hoja está abierta
+        hvm.getFichajes().observe(this, lista -> {
+            if (lista == null || adapterHistorial == null) return;
+            adapterHistorial.setLista(lista, paginacionHistorial::comprobar);
+            actualizarVacioHistorial();
+        });
+
+        hvm.getLoading().observe(this, cargando -> {
+            if (progressHistorialDialogo == null) return;
+            progressHistorialDialogo.setVisibility(Boolean.TRUE.equals(cargando) ? View.VISIBLE : View.GONE);
+            actualizarVacioHistorial();
+        });
+
+        hvm.getToastEvent().observe(this, e -> {
+            if (e == null) return;
+            String msg = e.getContentIfNotHandled();
+            if (msg != null && hojaHistorial != null) mostrarToastPop(msg, false);
+        });
+    }
+
     private void observarIncidenciasVM() {
         // Toasts del flujo de incidencias
         ivm.getToastEvent().observe(this, e -> {
@@ -490,11 +612,13 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
             }
         });
 
-        // Historial de incidencias
-        ivm.getHistorialEvent().observe(this, e -> {
-            if (e == null) return;
-            List<IncidenciaResponse> lista = e.getContentIfNotHandled();
-            if (lista != null) incidenciaHelper.mostrarDialogoHistorial(lista);
+        // Historial de incidencias: páginas y estado de carga hacia el diálogo abierto
+        ivm.getHistorial().observe(this, lista -> {
+            if (lista != null && dialogoIncidencias != null) dialogoIncidencias.pintar(lista);
+        });
+
+        ivm.getCargandoHistorial().observe(this, cargando -> {
+            if (dialogoIncidencias != null) dialogoIncidencias.setCargando(Boolean.TRUE.equals(cargando));
         });
 
         // Logout forzado desde flujo de incidencias (p. ej. token inválido)
@@ -506,34 +630,75 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
     }
 
     /**
-     * Muestra los últimos fichajes del usuario en un diálogo de lista simple.
+     * Abre el historial de incidencias y pide la primera página; el resto llega con el scroll.
      */
-    private void mostrarDialogoHistorialFichajes(List<FichajeResponse> lista) {
-        AlertDialog.Builder builder = new AlertDialog.Builder(MainActivity.this);
-        builder.setTitle("MIS ÚLTIMOS FICHAJES");
+    private void mostrarHistorialIncidencias() {
+        if (dialogoIncidencias != null) return;
+        IncidenciaViewModel vmIncidencias = incidencias();
+        dialogoIncidencias = incidenciaHelper.mostrarDialogoHistorial(
+                vmIncidencias::cargarMasHistorial,
+                d -> dialogoIncidencias = null
+        );
+        vmIncidencias.cargarHistorial();
+    }
 
-        if (lista == null || lista.isEmpty()) {
-            builder.setMessage("No tienes registros de fichaje aún.");
-        } else {
-            String[] items = new String[lista.size()];
-            for (int i = 0; i < lista.size(); i++) {
-                FichajeResponse f = lista.get(i);
-
-                // Formateo básico de fecha ISO -> texto legible
-                String rawFecha = f.getFechaHora();
-                String fechaLimpia = "Sin fecha";
-                if (rawFecha != null) {
-                    fechaLimpia = rawFecha.replace("T", " ");
-                    if (fechaLimpia.length() > 16) fechaLimpia = fechaLimpia.substring(0, 16);
-                }
-
-                items[i] = (f.getTipo() != null ? f.getTipo() : "REGISTRO") + "\n" + fechaLimpia;
-            }
-            builder.setItems(items, null);
-        }
+    /**
+     * Muestra los últimos fichajes del usuario en una hoja inferior con lista reciclada.
+     * Solo se pintan las filas visibles y al acercarse al final se pide la siguiente página.
+     */
+    private void mostrarDialogoHistorialFichajes() {
+        if (hojaHistorial != null) return;
+        HistorialViewModel vmHistorial = historial();
+
+        View contenido = getLayoutInflater().inflate(R.layout.dialog_historial_fichajes, null);
+
+        // Altura fija (60% de la pantalla) para que el RecyclerView recicle en vez de medir todas las filas.
+        View contenedor = contenido.findViewById(R.id.contenedorListaHistorial);
+        contenedor.getLayoutParams().height = (int) (getResources().getDisplayMetrics().heightPixels * 0.6f);
+
+        adapterHistorial = new FichajeAdapter();
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        RecyclerView lista = contenido.findViewById(R.id.recyclerHistorialDialogo);
+        lista.setLayoutManager(layoutManager);
+        lista.setAdapter(adapterHistorial);
+        paginacionHistorial = new PaginacionScrollListener(layoutManager, vmHistorial::cargarMas);
+        lista.addOnScrollListener(paginacionHistorial);
+        MonitorJank.vigilar(lista, "MisUltimosFichajes");
+
+        tvHistorialVacio = contenido.findViewById(R.id.tvHistorialVacio);
+        progressHistorialDialogo = contenido.findViewById(R.id.progressHistorialDialogo);
+
+        hojaHistorial = new BottomSheetDialog(this);
+        hojaHistorial.setContentView(contenido);
+        hojaHistorial.getBehavior().setState(BottomSheetBehavior.STATE_EXPANDED);
+        hojaHistorial.getBehavior().setSkipCollapsed(true);
+        contenido.findViewById(R.id.btnCerrarHistorialDialogo).setOnClickListener(v -> hojaHistorial.dismiss());
+
+        // Al cerrar se sueltan las vistas; el VM conserva lo cargado hasta la próxima apertura.
+        hojaHistorial.setOnDismissListener(d -> {
+            hojaHistorial = null;
+            adapterHistorial = null;
+            paginacionHistorial = null;
+            tvHistorialVacio = null;
+            progressHistorialDialogo = null;
+        });
+        hojaHistorial.show();
 
-        builder.setPositiveButton("CERRAR", null);
-        builder.show();
+        // Lo cargado en la apertura anterior se enseña ya mientras llega lo nuevo.
+        List<FichajeResponse> previo = vmHistorial.getFichajes().getValue();
+        if (previo != null && !previo.isEmpty()) adapterHistorial.setLista(previo);
+
+        // Primera página (la caché local la adelanta); los observers pintan lo que llegue.
+        vmHistorial.cargarMisFichajes();
+    }
+
+    // Mensaje de lista vacía solo cuando ya no hay carga en curso.
+    private void actualizarVacioHistorial() {
+        if (tvHistorialVacio == null || adapterHistorial == null) return;
+        List<FichajeResponse> lista = hvm.getFichajes().getValue();
+        boolean vacio = lista == null || lista.isEmpty();
+        boolean cargando = Boolean.TRUE.equals(hvm.getLoading().getValue());
+        tvHistorialVacio.setVisibility(vacio && !cargando ? View.VISIBLE : View.GONE);
     }
 
     /**
@@ -588,27 +753,25 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
 
         fusedLocationClient.getCurrentLocation(Priority.PRIORITY_HIGH_ACCURACY, null)
                 .addOnSuccessListener(this, location -> {
-                    String token = sessionManager.getAuthToken();
-                    if (token == null) { irALogin(); return; }
+                    if (sessionManager.getAuthToken() == null) { irALogin(); return; }
 
                     if (location != null) {
                         if (nfcCode != null) {
-                            vm.realizarFichajeNfc("Bearer " + token, location.getLatitude(), location.getLongitude(), nfcCode);
+                            vm.realizarFichajeNfc(location.getLatitude(), location.getLongitude(), nfcCode);
                         } else {
-                            vm.fichar("Bearer " + token, location.getLatitude(), location.getLongitude(), null);
+                            vm.fichar(location.getLatitude(), location.getLongitude(), null);
                         }
                     } else {
                         // Sin ubicación -> avisamos y refrescamos estado de fichaje actual
                         mostrarToastPop("Activa el GPS", false);
-                        vm.consultarEstadoFichaje("Bearer " + token);
+                        vm.consultarEstadoFichaje();
                         if (nfcCode == null) btnFicharMain.setEnabled(true);
                     }
                 })
                 .addOnFailureListener(e -> {
                     // Error de ubicación -> restauramos UI y refrescamos estado
                     mostrarToastPop("Error GPS", false);
-                    String token = sessionManager.getAuthToken();
-                    if (token != null) vm.consultarEstadoFichaje("Bearer " + token);
+                    if (sessionManager.getAuthToken() != null) vm.consultarEstadoFichaje();
                     if (nfcCode == null) btnFicharMain.setEnabled(true);
                 });
     }
@@ -757,8 +920,7 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
                 return;
             }
 
-            String token = sessionManager.getAuthToken();
-            if (token != null) vm.cambiarPassword("Bearer " + token, actual, nueva);
+            if (sessionManager.getAuthToken() != null) vm.cambiarPassword(actual, nueva);
         });
 
         builder.setNegativeButton("CANCELAR", null);
@@ -816,7 +978,7 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
 
         RetrofitClient.getInstance()
                 .getMyApi()
-                .logout("Bearer " + token)
+                .logout()
                 .enqueue(new Callback<Void>() {
                     @Override
                     public void onResponse(Call<Void> call, Response<Void> response) {
@@ -858,6 +1020,7 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
      */
     private void irALogin() {
         cancelRecordatorioWorker();
+        TrabajadorRenovarTokenScheduler.cancelar(this);
         sessionManager.clearSession();
         startActivity(new Intent(MainActivity.this, LoginActivity.class));
         finish();
@@ -905,15 +1068,12 @@ public class MainActivity extends AppCompatActivity implements NfcFichajeControl
                     if (!task.isSuccessful()) return;
 
                     String tokenFCM = task.getResult();
-                    String authToken = sessionManager.getAuthToken();
-                    if (authToken == null) return;
-
-                    String bearer = "Bearer " + authToken;
+                    if (sessionManager.getAuthToken() == null) return;
 
                     com.example.trabajoapi.data.FcmTokenRequest request =
                             new com.example.trabajoapi.data.FcmTokenRequest(tokenFCM);
 
-                    RetrofitClient.getInstance().getMyApi().saveFcmToken(bearer, request)
+                    RetrofitClient.getInstance().getMyApi().saveFcmToken(request)
                             .enqueue(new Callback<Void>() {
                                 @Override public void onResponse(Call<Void> call, Response<Void> response) { }
                                 @Override public void onFailure(Call<Void> call, Throwable t) { }
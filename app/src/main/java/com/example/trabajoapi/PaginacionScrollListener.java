@@ -0,0 +1,37 @@
+package com.example.trabajoapi;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Pide la siguiente página cuando el usuario se acerca al final de la lista.
+ *
+ * Puede dispararse varias veces seguidas: quien recibe cargarMas debe ignorar
+ * las peticiones mientras ya hay una página en curso o no quedan más.
+ */
+public class PaginacionScrollListener extends RecyclerView.OnScrollListener {
+
+    // Filas que faltan por ver cuando se pide la siguiente página.
+    private static final int UMBRAL = 10;
+
+    private final LinearLayoutManager layoutManager;
+    private final Runnable cargarMas;
+
+    public PaginacionScrollListener(LinearLayoutManager layoutManager, Runnable cargarMas) {
+        this.layoutManager = layoutManager;
+        this.cargarMas = cargarMas;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        if (dy > 0) comprobar();
+    }
+
+    // Llamar también tras pintar una página: si no llena la pantalla no habrá scroll que la dispare.
+    public void comprobar() {
+        int total = layoutManager.getItemCount();
+        if (total == 0) return;
+        if (layoutManager.findLastVisibleItemPosition() >= total - UMBRAL) cargarMas.run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.trabajoapi;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+
+import com.example.trabajoapi.data.diagnostico.TrazaArranque;
+
+import java.util.ArrayDeque;
+
+/**
+ * Trabajo de arranque que no hace falta para el primer frame (permisos, WorkManager, FCM...).
+ *
+ * Las tareas se añaden en onCreate y empiezan cuando la pantalla ya se ha dibujado: se ejecuta
+ * una por cada vez que el hilo principal queda ocioso, para no encadenar un bloque largo que
+ * retrase el primer toque. Cada tarea queda trazada con TrazaArranque.
+ */
+public class TareasDiferidas implements MessageQueue.IdleHandler {
+
+    private final String pantalla;
+    private final ArrayDeque<String> nombres = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> tareas = new ArrayDeque<>();
+    private boolean iniciadas = false;
+    private boolean canceladas = false;
+    private long inicioMs = 0;
+
+    public TareasDiferidas(String pantalla) {
+        this.pantalla = pantalla;
+    }
+
+    public TareasDiferidas agregar(String nombre, Runnable tarea) {
+        nombres.add(nombre);
+        tareas.add(tarea);
+        return this;
+    }
+
+    // Empieza a ejecutarlas en los huecos libres del hilo principal (llamar tras el primer frame).
+    public void iniciar() {
+        if (iniciadas || canceladas) return;
+        iniciadas = true;
+        inicioMs = SystemClock.uptimeMillis();
+        Looper.myQueue().addIdleHandler(this);
+    }
+
+    // Descarta lo que quede (p. ej. la pantalla se cierra antes de terminar).
+    public void cancelar() {
+        canceladas = true;
+        tareas.clear();
+        nombres.clear();
+        if (iniciadas) Looper.myQueue().removeIdleHandler(this);
+    }
+
+    @Override
+    public boolean queueIdle() {
+        Runnable tarea = tareas.poll();
+        String nombre = nombres.poll();
+        if (tarea == null || canceladas) return false;
+
+        long t = TrazaArranque.empezar(pantalla, nombre);
+        try {
+            tarea.run();
+        } finally {
+            TrazaArranque.terminar(pantalla, nombre, t);
+        }
+
+        if (tareas.isEmpty()) {
+            TrazaArranque.hito(pantalla, TrazaArranque.FASE_DIFERIDO_TOTAL, inicioMs);
+            return false;
+        }
+        return true;
+    }
+}
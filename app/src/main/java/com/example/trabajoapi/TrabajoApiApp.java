@@ -0,0 +1,26 @@
+package com.example.trabajoapi;
+
+import android.app.Application;
+
+import com.example.trabajoapi.data.RetrofitClient;
+import com.example.trabajoapi.data.TokenHolder;
+import com.example.trabajoapi.data.diagnostico.MetricasRed;
+import com.example.trabajoapi.data.diagnostico.TrazaArranque;
+
+/**
+ * Punto de arranque del proceso.
+ * Prepara métricas de red, lanza la construcción del cliente HTTP en segundo plano y carga el token
+ * de sesión en memoria antes de que cualquier pantalla, worker o servicio haga peticiones.
+ */
+public class TrabajoApiApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        long t = TrazaArranque.empezar("App", "onCreate");
+        MetricasRed.init(this);
+        RetrofitClient.init(this);
+        TokenHolder.init(this);
+        TrazaArranque.terminar("App", "onCreate", t);
+    }
+}
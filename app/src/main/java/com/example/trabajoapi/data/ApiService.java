@@ -2,6 +2,7 @@ package com.example.trabajoapi.data;
 
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
@@ -9,16 +10,25 @@ import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
+/**
+ * Endpoints del backend.
+ * La cabecera Authorization no aparece aquí: la añade AuthInterceptor con el token en memoria.
+ */
 public interface ApiService {
 
     // Autenticación y gestión de sesión.
     @POST("api/login")
     Call<LoginResponse> login(@Body LoginRequest loginRequest);
 
+    // Cambia un refresh token por un access token nuevo (y, si el backend rota, otro refresh token).
+    @POST("api/refresh")
+    Call<LoginResponse> refresh(@Body RefreshRequest request);
+
     // Cierra la sesión del usuario autenticado
     @POST("api/logout")
-    Call<Void> logout(@Header("Authorization") String authorization);
+    Call<Void> logout();
 
     // Dispara el flujo de recuperación de contraseña desde el identificador (email).
     @POST("api/reset-password")
@@ -26,85 +36,101 @@ public interface ApiService {
 
     // Cambia la contraseña del usuario autenticado.
     @POST("api/change-password")
-    Call<Void> changePassword(
-            @Header("Authorization") String token,
-            @Body ChangePasswordRequest request
-    );
+    Call<Void> changePassword(@Body ChangePasswordRequest request);
 
     // Registra un fichaje usando la ubicación actual.
+    // La cabecera Idempotency-Key permite al interceptor de reintentos repetir el POST sin duplicar.
     @POST("api/fichar")
     Call<FichajeResponse> fichar(
-            @Header("Authorization") String token,
+            @Header("Idempotency-Key") String idempotencyKey,
             @Body FichajeRequest request
     );
 
     // Registra un fichaje validando la tarjeta NFC junto con la ubicación.
     @POST("api/fichar-nfc")
     Call<FichajeResponse> ficharNfc(
-            @Header("Authorization") String token,
+            @Header("Idempotency-Key") String idempotencyKey,
             @Body NfcFichajeRequest request
     );
 
     // Devuelve los últimos fichajes del usuario.
     @GET("api/mis-fichajes")
-    Call<List<FichajeResponse>> obtenerHistorial(@Header("Authorization") String token);
+    Call<List<FichajeResponse>> obtenerHistorial();
+
+    // Solo los fichajes con id > despuesDeId (sincronización delta tras el último conocido).
+    // Un backend sin soporte ignora el parámetro y devuelve el historial entero.
+    @GET("api/mis-fichajes")
+    Call<List<FichajeResponse>> obtenerHistorialDesde(@Query("after_id") int despuesDeId);
+
+    // Una página del historial propio (más reciente primero): fichajes con id < antesDeId, como mucho limite.
+    // antesDeId null = primera página. Un backend sin paginación ignora ambos y devuelve todo.
+    @GET("api/mis-fichajes")
+    Call<List<FichajeResponse>> obtenerHistorialPagina(
+            @Query("before_id") Integer antesDeId,
+            @Query("limit") int limite
+    );
+
+    // Devuelve de una vez estado, resumen del mes y recordatorio para la pantalla principal.
+    @GET("api/dashboard")
+    Call<DashboardResponse> getDashboard();
+
+    // Devuelve solo el estado actual (último fichaje + hora del servidor), sin el historial.
+    @GET("api/estado-fichaje")
+    Call<EstadoFichajeResponse> getEstadoFichaje();
 
     // Devuelve el resumen mensual (permite filtrar por mes/año si se envía).
     @GET("api/resumen")
     Call<ResumenResponse> getResumen(
-            @Header("Authorization") String token,
             @Query("mes") Integer mes,
             @Query("anio") Integer anio
     );
 
     // Envía una solicitud/incidencia con fechas y motivo.
     @POST("api/incidencias")
-    Call<Void> crearIncidencia(
-            @Header("Authorization") String token,
-            @Body IncidenciaRequest request
-    );
+    Call<Void> crearIncidencia(@Body IncidenciaRequest request);
 
-    // Lista las incidencias del usuario autenticado.
+    // Lista las incidencias del usuario autenticado, más recientes primero y por páginas (offset/limit).
     @GET("api/incidencias")
-    Call<List<IncidenciaResponse>> getMisIncidencias(@Header("Authorization") String token);
+    Call<List<IncidenciaResponse>> getMisIncidencias(
+            @Query("offset") int desde,
+            @Query("limit") int limite
+    );
 
     // Asocia el token FCM del dispositivo a la cuenta para recibir avisos.
     @POST("api/save-fcm-token")
-    Call<Void> saveFcmToken(
-            @Header("Authorization") String token,
-            @Body FcmTokenRequest request
-    );
+    Call<Void> saveFcmToken(@Body FcmTokenRequest request);
 
     // Devuelve el listado de empleados (zona admin).
     @GET("api/empleados")
-    Call<List<TrabajadorResponse>> getEmpleados(@Header("Authorization") String token);
+    Call<List<TrabajadorResponse>> getEmpleados();
 
     // Devuelve el historial de fichajes de un empleado concreto (zona admin).
     @GET("api/fichajes-empleado/{id}")
-    Call<List<FichajeResponse>> getFichajesEmpleado(
-            @Header("Authorization") String token,
-            @Path("id") int idEmpleado
+    Call<List<FichajeResponse>> getFichajesEmpleado(@Path("id") int idEmpleado);
+
+    // Una página del mismo historial sin convertir: el cuerpo se lee por bloques a medida que llega (ver JsonApi).
+    // Paginación por cursor igual que obtenerHistorialPagina.
+    @Streaming
+    @GET("api/fichajes-empleado/{id}")
+    Call<ResponseBody> getFichajesEmpleadoStream(
+            @Path("id") int idEmpleado,
+            @Query("before_id") Integer antesDeId,
+            @Query("limit") int limite
     );
 
     // Carga la configuración de empresa (ubicación/radio).
     @GET("api/empresa/config")
-    Call<EmpresaConfigResponse> getEmpresaConfig(@Header("Authorization") String token);
+    Call<EmpresaConfigResponse> getEmpresaConfig();
 
     // Guarda la configuración de empresa (ubicación/radio).
     @POST("api/empresa/config")
-    Call<Void> updateEmpresaConfig(
-            @Header("Authorization") String token,
-            @Body EmpresaConfigResponse config
-    );
+    Call<Void> updateEmpresaConfig(@Body EmpresaConfigResponse config);
 
     // Pide al servidor un recordatorio de fichaje si procede.
     @GET("api/recordatorio-fichaje")
-    Call<RecordatorioResponse> getRecordatorioFichaje(@Header("Authorization") String token);
+    Call<RecordatorioResponse> getRecordatorioFichaje();
 
     // Actualiza el NFC principal de la empresa para validar fichajes.
     @POST("api/empresa/config-nfc")
-    Call<Void> updateEmpresaNfc(
-            @Header("Authorization") String token,
-            @Body NfcFichajeRequest request
-    );
+    Call<Void> updateEmpresaNfc(@Body NfcFichajeRequest request);
 }
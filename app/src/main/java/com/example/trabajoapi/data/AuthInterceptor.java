@@ -0,0 +1,75 @@
+package com.example.trabajoapi.data;
+
+import android.content.Context;
+
+import com.example.trabajoapi.data.repository.AuthRepository;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Añade "Authorization: Bearer ..." a todas las peticiones con el token en memoria
+ * y centraliza la respuesta a un 401 (sesión caducada).
+ *
+ * Si el token está a punto de caducar (según su "exp") y hay refresh token, lo renueva antes de
+ * enviar, para ahorrarse el 401. Los 401 que aun así lleguen los trata RenovacionAuthenticator.
+ */
+public class AuthInterceptor implements Interceptor {
+
+    // Endpoints que no llevan token.
+    static final Set<String> RUTAS_PUBLICAS = new HashSet<>(Arrays.asList(
+            "/api/login",
+            "/api/refresh",
+            "/api/reset-password"
+    ));
+
+    // Endpoints donde un 401 no significa sesión caducada (p. ej. contraseña actual incorrecta)
+    // o donde ya se está cerrando la sesión.
+    static final Set<String> SIN_GESTION_401 = new HashSet<>(Arrays.asList(
+            "/api/logout",
+            "/api/change-password"
+    ));
+
+    // Null = sin renovación anticipada (solo la reactiva del Authenticator, si lo hay).
+    private final Context appContext;
+
+    public AuthInterceptor(Context context) {
+        this.appContext = context != null ? context.getApplicationContext() : null;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String ruta = request.url().encodedPath();
+
+        String token = TokenHolder.get();
+        if (token == null || RUTAS_PUBLICAS.contains(ruta)) {
+            return chain.proceed(request);
+        }
+
+        // Renovación anticipada: mejor pedir un token nuevo ahora que mandar uno que va a dar 401.
+        if (appContext != null && !TokenHolder.vigente()) {
+            try {
+                String nuevo = AuthRepository.renovarToken(appContext, token);
+                if (nuevo != null) token = nuevo;
+            } catch (IOException ignored) {
+                // Sin red para renovar: se prueba con el actual y, si hace falta, lo resuelve el Authenticator.
+            }
+        }
+
+        Response response = chain.proceed(request.newBuilder()
+                .header("Authorization", "Bearer " + token)
+                .build());
+
+        if (response.code() == 401 && !SIN_GESTION_401.contains(ruta)) {
+            TokenHolder.invalidar(token);
+        }
+        return response;
+    }
+}
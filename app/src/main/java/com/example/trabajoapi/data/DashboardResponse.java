@@ -0,0 +1,29 @@
+package com.example.trabajoapi.data;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * DTO de respuesta para /api/dashboard
+ *
+ * Junta en una sola respuesta lo que necesita la pantalla principal al abrirse:
+ * estado de presencia, resumen del mes en curso y recordatorio de fichaje.
+ * Cada bloque tiene el mismo formato que su endpoint individual.
+ */
+public class DashboardResponse {
+
+    // Igual que /api/estado-fichaje.
+    @SerializedName("estado")
+    private EstadoFichajeResponse estado;
+
+    // Igual que /api/resumen sin filtros (mes y año actuales).
+    @SerializedName("resumen")
+    private ResumenResponse resumen;
+
+    // Igual que /api/recordatorio-fichaje; null cuando no hay nada que avisar.
+    @SerializedName("recordatorio")
+    private RecordatorioResponse recordatorio;
+
+    public EstadoFichajeResponse getEstado() { return estado; }
+    public ResumenResponse getResumen() { return resumen; }
+    public RecordatorioResponse getRecordatorio() { return recordatorio; }
+}
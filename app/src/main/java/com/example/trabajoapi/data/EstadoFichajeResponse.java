@@ -0,0 +1,38 @@
+package com.example.trabajoapi.data;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * DTO de respuesta para /api/estado-fichaje
+ *
+ * Resumen mínimo del estado de presencia: sustituye a descargar el historial
+ * completo solo para leer el último fichaje.
+ */
+public class EstadoFichajeResponse {
+
+    // True si el último fichaje es ENTRADA.
+    @SerializedName("dentro")
+    private Boolean dentro;
+
+    // Tipo del último fichaje (ENTRADA/SALIDA) o null si no hay ninguno.
+    @SerializedName("ultimo_tipo")
+    private String ultimoTipo;
+
+    // Fecha/hora ISO del último fichaje o null si no hay ninguno.
+    @SerializedName("ultima_fecha_hora")
+    private String ultimaFechaHora;
+
+    // Hora actual del servidor en ISO, útil para detectar relojes del móvil desajustados.
+    @SerializedName("hora_servidor")
+    private String horaServidor;
+
+    // Usa el flag del backend y, si no viene, lo deduce del último tipo.
+    public boolean isDentro() {
+        if (dentro != null) return dentro;
+        return "ENTRADA".equalsIgnoreCase(ultimoTipo);
+    }
+
+    public String getUltimoTipo() { return ultimoTipo; }
+    public String getUltimaFechaHora() { return ultimaFechaHora; }
+    public String getHoraServidor() { return horaServidor; }
+}
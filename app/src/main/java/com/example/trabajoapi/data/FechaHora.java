@@ -0,0 +1,119 @@
+package com.example.trabajoapi.data;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Conversión de las fechas ISO-8601 del backend a epoch millis y a texto para pantalla.
+ *
+ * - parsear() no crea objetos: se llama una vez por fichaje al deserializar (miles en los listados admin).
+ * - Con zona ("Z", "+01:00", "+0100") se respeta; sin zona es hora local del dispositivo,
+ *   que es como se han mostrado siempre.
+ * - formatear() reutiliza un SimpleDateFormat por hilo.
+ * Clase Java pura (sin Android).
+ */
+public final class FechaHora {
+
+    // Valor de "sin fecha o ilegible".
+    public static final long SIN_FECHA = Long.MIN_VALUE;
+
+    private static final ThreadLocal<SimpleDateFormat> FORMATO_PANTALLA = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+        }
+    };
+
+    private FechaHora() { }
+
+    // "YYYY-MM-DDTHH:mm[:ss[.fff]][zona]" -> epoch millis, o SIN_FECHA si no se entiende.
+    public static long parsear(String iso) {
+        if (iso == null || iso.length() < 16) return SIN_FECHA;
+        try {
+            if (iso.charAt(4) != '-' || iso.charAt(7) != '-' || iso.charAt(13) != ':') return SIN_FECHA;
+            char sep = iso.charAt(10);
+            if (sep != 'T' && sep != ' ') return SIN_FECHA;
+
+            int anio = numero(iso, 0, 4);
+            int mes = numero(iso, 5, 7);
+            int dia = numero(iso, 8, 10);
+            int hora = numero(iso, 11, 13);
+            int minuto = numero(iso, 14, 16);
+            if (mes < 1 || mes > 12 || dia < 1 || dia > 31 || hora > 23 || minuto > 59) return SIN_FECHA;
+
+            int i = 16;
+            int segundo = 0;
+            if (i < iso.length() && iso.charAt(i) == ':') {
+                segundo = numero(iso, 17, 19);
+                i = 19;
+            }
+
+            // Fracción de segundo: se toman como mucho los milisegundos.
+            int milis = 0;
+            if (i < iso.length() && iso.charAt(i) == '.') {
+                i++;
+                int digitos = 0;
+                while (i < iso.length() && Character.isDigit(iso.charAt(i))) {
+                    if (digitos < 3) {
+                        milis = milis * 10 + (iso.charAt(i) - '0');
+                        digitos++;
+                    }
+                    i++;
+                }
+                while (digitos++ < 3) milis *= 10;
+            }
+
+            long utc = ((diasDesdeEpoch(anio, mes, dia) * 24 + hora) * 60 + minuto) * 60_000L
+                    + segundo * 1000L + milis;
+
+            if (i == iso.length()) {
+                // Sin zona: hora local del dispositivo.
+                TimeZone tz = TimeZone.getDefault();
+                return utc - tz.getOffset(utc - tz.getRawOffset());
+            }
+
+            char z = iso.charAt(i);
+            if (z == 'Z' && i + 1 == iso.length()) return utc;
+            if (z != '+' && z != '-') return SIN_FECHA;
+
+            int offHoras = numero(iso, i + 1, i + 3);
+            int j = i + 3;
+            if (j < iso.length() && iso.charAt(j) == ':') j++;
+            int offMinutos = j < iso.length() ? numero(iso, j, j + 2) : 0;
+            long offset = (offHoras * 60L + offMinutos) * 60_000L;
+            return z == '+' ? utc - offset : utc + offset;
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            return SIN_FECHA;
+        }
+    }
+
+    // Epoch millis -> "yyyy-MM-dd HH:mm" en la zona actual del dispositivo.
+    public static String formatear(long epochMs) {
+        SimpleDateFormat f = FORMATO_PANTALLA.get();
+        TimeZone tz = TimeZone.getDefault();
+        if (!tz.getID().equals(f.getTimeZone().getID())) f.setTimeZone(tz);
+        return f.format(new Date(epochMs));
+    }
+
+    private static int numero(String s, int desde, int hasta) {
+        int n = 0;
+        for (int i = desde; i < hasta; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') throw new NumberFormatException(s);
+            n = n * 10 + (c - '0');
+        }
+        return n;
+    }
+
+    // Días desde 1970-01-01 para una fecha del calendario gregoriano proléptico.
+    private static long diasDesdeEpoch(int anio, int mes, int dia) {
+        long y = mes <= 2 ? anio - 1 : anio;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yoe = y - era * 400;
+        long doy = (153L * (mes + (mes > 2 ? -3 : 9)) + 2) / 5 + dia - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+}
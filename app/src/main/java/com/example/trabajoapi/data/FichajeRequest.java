@@ -9,6 +9,14 @@ public class FichajeRequest {
     @SerializedName("nfc_data")
     private String nfcData;
 
+    // Momento real de la captura; permite al servidor registrar fichajes enviados con retraso desde la cola local.
+    @SerializedName("capturado_en")
+    private String capturadoEn;
+
+    // Identifica este fichaje concreto; si llega dos veces (reintento), el servidor no lo duplica.
+    @SerializedName("idempotency_key")
+    private String idempotencyKey;
+
     // Construye el fichaje con ubicación y deja NFC vacío para el modo manual.
     public FichajeRequest(Double latitud, Double longitud) {
         this.latitud = latitud;
@@ -22,4 +30,13 @@ public class FichajeRequest {
         this.longitud = longitud;
         this.nfcData = nfcData;
     }
+
+    // Construye el fichaje con hora de captura y clave de idempotencia para envíos reintentables.
+    public FichajeRequest(Double latitud, Double longitud, String nfcData, String capturadoEn, String idempotencyKey) {
+        this.latitud = latitud;
+        this.longitud = longitud;
+        this.nfcData = nfcData;
+        this.capturadoEn = capturadoEn;
+        this.idempotencyKey = idempotencyKey;
+    }
 }
@@ -19,8 +19,28 @@ public class FichajeResponse {
     @SerializedName("longitud")
     private double longitud;
 
+    // fecha_hora ya convertida (ver FechaHora); no forma parte del JSON.
+    private transient long fechaHoraMs = FechaHora.SIN_FECHA;
+    private transient boolean fechaParseada = false;
+
+    // Texto para pantalla, calculado la primera vez que se pinta.
+    private transient String fechaTexto;
+
     public FichajeResponse() { }
 
+    // Reconstruye un fichaje ya conocido (p. ej. desde la caché local).
+    public FichajeResponse(int id, String tipo, String fechaHora, double latitud, double longitud) {
+        this.id = id;
+        this.tipo = tipo;
+        this.fechaHora = fechaHora;
+        this.latitud = latitud;
+        this.longitud = longitud;
+
+        // Se parsea aquí, al deserializar o leer de caché (fuera del hilo principal), y no en cada bind.
+        this.fechaHoraMs = FechaHora.parsear(fechaHora);
+        this.fechaParseada = true;
+    }
+
     public int getId() {
         return id;
     }
@@ -33,6 +53,30 @@ public class FichajeResponse {
         return fechaHora;
     }
 
+    // Instante del fichaje en epoch millis, o FechaHora.SIN_FECHA si no tiene fecha legible.
+    public long getFechaHoraMs() {
+        if (!fechaParseada) {
+            fechaHoraMs = FechaHora.parsear(fechaHora);
+            fechaParseada = true;
+        }
+        return fechaHoraMs;
+    }
+
+    // "yyyy-MM-dd HH:mm" listo para mostrar, o null si no hay fecha.
+    public String getFechaTexto() {
+        if (fechaTexto == null && fechaHora != null) {
+            long ms = getFechaHoraMs();
+            if (ms != FechaHora.SIN_FECHA) {
+                fechaTexto = FechaHora.formatear(ms);
+            } else {
+                // Formato que no se entiende: se enseña tal cual, recortado como antes.
+                String t = fechaHora.replace("T", " ");
+                fechaTexto = t.length() > 16 ? t.substring(0, 16) : t;
+            }
+        }
+        return fechaTexto;
+    }
+
     public double getLatitud() {
         return latitud;
     }
@@ -2,20 +2,26 @@ package com.example.trabajoapi.data;
 
 import android.app.DatePickerDialog;
 import android.content.Context;
-import android.graphics.Color;
+import android.content.DialogInterface;
+import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.EditText;
+import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
-import android.widget.ScrollView;
+import android.widget.ProgressBar;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.trabajoapi.IncidenciaAdapter;
+import com.example.trabajoapi.PaginacionScrollListener;
 import com.example.trabajoapi.R;
 
 import java.util.Calendar;
@@ -101,82 +107,84 @@ public class IncidenciaHelper {
         dpd.show();
     }
 
-    // Muestra el historial en tarjetas, aplicando estilo según estado y comentario del admin.
-    public void mostrarDialogoHistorial(List<IncidenciaResponse> lista) {
+    /**
+     * Abre el historial de solicitudes con una lista reciclada (solo se pintan las filas visibles).
+     * El diálogo empieza vacío con progreso: quien lo abre le pasa las páginas con pintar()
+     * y cargarMas se llama al acercarse al final.
+     */
+    public DialogoHistorial mostrarDialogoHistorial(Runnable cargarMas, DialogInterface.OnDismissListener alCerrar) {
         AlertDialog.Builder builder = new AlertDialog.Builder(context);
         builder.setTitle("MIS SOLICITUDES");
 
-        ScrollView scrollView = new ScrollView(context);
-        LinearLayout layout = new LinearLayout(context);
-        layout.setOrientation(LinearLayout.VERTICAL);
-        layout.setPadding(40, 40, 40, 40);
-
-        if (lista == null || lista.isEmpty()) {
-            TextView tv = new TextView(context);
-            tv.setText("No tienes solicitudes recientes.");
-            layout.addView(tv);
-        } else {
-            for (IncidenciaResponse inc : lista) {
-                LinearLayout card = new LinearLayout(context);
-                card.setOrientation(LinearLayout.VERTICAL);
-                card.setBackgroundColor(Color.WHITE);
-                card.setPadding(30, 30, 30, 30);
-
-                LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                        LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
-                params.setMargins(0, 0, 0, 40);
-                card.setLayoutParams(params);
-
-                String estadoIcono = "⏳ PENDIENTE";
-                int colorFondo = Color.parseColor("#FEF9C3");
-
-                if ("APROBADA".equalsIgnoreCase(inc.getEstado())) {
-                    estadoIcono = "✅ APROBADA";
-                    colorFondo = Color.parseColor("#DCFCE7");
-                } else if ("RECHAZADA".equalsIgnoreCase(inc.getEstado())) {
-                    estadoIcono = "❌ RECHAZADA";
-                    colorFondo = Color.parseColor("#FEE2E2");
-                }
-
-                TextView tvHeader = new TextView(context);
-                tvHeader.setText(inc.getTipo() + "\n" + estadoIcono);
-                tvHeader.setTextSize(16);
-                tvHeader.setPadding(20, 20, 20, 20);
-                tvHeader.setBackgroundColor(colorFondo);
-                tvHeader.setTextColor(Color.BLACK);
-                card.addView(tvHeader);
-
-                TextView tvFechas = new TextView(context);
-                tvFechas.setText("📅 " + inc.getFechaInicio() + " -> " + inc.getFechaFin());
-                tvFechas.setTextColor(Color.DKGRAY);
-                tvFechas.setPadding(10, 20, 10, 0);
-                card.addView(tvFechas);
-
-                if (inc.getComentarioAdmin() != null && !inc.getComentarioAdmin().isEmpty()) {
-                    TextView tvAdmin = new TextView(context);
-                    tvAdmin.setText("💬 Admin: " + inc.getComentarioAdmin());
-                    tvAdmin.setPadding(10, 10, 10, 10);
-                    tvAdmin.setTextColor(Color.BLACK);
-                    card.addView(tvAdmin);
-                }
-
-                layout.addView(card);
-
-                View line = new View(context);
-                line.setLayoutParams(new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 4));
-                line.setBackgroundColor(Color.BLACK);
-                layout.addView(line);
-
-                View spacer = new View(context);
-                spacer.setLayoutParams(new LinearLayout.LayoutParams(1, 40));
-                layout.addView(spacer);
-            }
+        FrameLayout contenedor = new FrameLayout(context);
+        contenedor.setPadding(40, 40, 40, 0);
+        // Altura fija: con wrap_content la lista mediría (e inflaría) todas las filas.
+        int alto = (int) (context.getResources().getDisplayMetrics().heightPixels * 0.55f);
+
+        IncidenciaAdapter adapter = new IncidenciaAdapter();
+        LinearLayoutManager layoutManager = new LinearLayoutManager(context);
+        RecyclerView recycler = new RecyclerView(context);
+        recycler.setLayoutManager(layoutManager);
+        recycler.setAdapter(adapter);
+        PaginacionScrollListener paginacion = new PaginacionScrollListener(layoutManager, cargarMas);
+        recycler.addOnScrollListener(paginacion);
+        contenedor.addView(recycler, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.MATCH_PARENT, alto));
+
+        TextView tvVacio = new TextView(context);
+        tvVacio.setText("No tienes solicitudes recientes.");
+        tvVacio.setVisibility(View.GONE);
+        contenedor.addView(tvVacio, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.CENTER));
+
+        ProgressBar progreso = new ProgressBar(context);
+        contenedor.addView(progreso, new FrameLayout.LayoutParams(
+                FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.CENTER));
+
+        builder.setView(contenedor);
+        builder.setPositiveButton("CERRAR", null);
+        AlertDialog dialog = builder.create();
+        dialog.setOnDismissListener(alCerrar);
+        dialog.show();
+
+        return new DialogoHistorial(adapter, paginacion, tvVacio, progreso);
+    }
+
+    /**
+     * Vistas del diálogo de historial abierto, para ir pintando páginas y estado de carga.
+     */
+    public static final class DialogoHistorial {
+        private final IncidenciaAdapter adapter;
+        private final PaginacionScrollListener paginacion;
+        private final TextView tvVacio;
+        private final ProgressBar progreso;
+        private boolean cargando = true;
+        private boolean vacio = true;
+
+        DialogoHistorial(IncidenciaAdapter adapter, PaginacionScrollListener paginacion,
+                         TextView tvVacio, ProgressBar progreso) {
+            this.adapter = adapter;
+            this.paginacion = paginacion;
+            this.tvVacio = tvVacio;
+            this.progreso = progreso;
         }
 
-        scrollView.addView(layout);
-        builder.setView(scrollView);
-        builder.setPositiveButton("CERRAR", null);
-        builder.show();
+        // Sustituye la lista; si la página no llena la pantalla se pide la siguiente.
+        public void pintar(List<IncidenciaResponse> lista) {
+            vacio = lista.isEmpty();
+            adapter.setLista(lista, paginacion::comprobar);
+            actualizarEstado();
+        }
+
+        public void setCargando(boolean cargando) {
+            this.cargando = cargando;
+            actualizarEstado();
+        }
+
+        private void actualizarEstado() {
+            progreso.setVisibility(cargando ? View.VISIBLE : View.GONE);
+            tvVacio.setVisibility(vacio && !cargando ? View.VISIBLE : View.GONE);
+        }
     }
 
     // Muestra un toast con el estilo “pop” de la app y cae a toast normal si falla.
@@ -3,6 +3,10 @@ package com.example.trabajoapi.data;
 import com.google.gson.annotations.SerializedName;
 
 public class IncidenciaResponse {
+    // Puede no venir en backends antiguos (null).
+    @SerializedName("id")
+    private Integer id;
+
     @SerializedName("tipo")
     private String tipo;
 
@@ -18,6 +22,10 @@ public class IncidenciaResponse {
     @SerializedName("comentario_admin")
     private String comentarioAdmin;
 
+    public IncidenciaResponse() { }
+
+    public Integer getId() { return id; }
+
     // Devuelve los campos listos para pintar en historial y detalle.
     public String getTipo() { return tipo; }
     public String getEstado() { return estado; }
@@ -0,0 +1,38 @@
+package com.example.trabajoapi.data;
+
+import android.util.Base64;
+
+import org.json.JSONObject;
+
+/**
+ * Lectura local de la caducidad (claim "exp") de un JWT, sin verificar la firma.
+ *
+ * Solo sirve para decidir la ruta al arrancar (Main o Login) sin ir a la red: quien valida
+ * de verdad el token es el servidor en cada petición.
+ */
+public final class Jwt {
+
+    // Valor devuelto cuando el token no trae "exp" o no se puede leer.
+    public static final long SIN_EXPIRACION = -1L;
+
+    private Jwt() { }
+
+    // Instante de caducidad en epoch millis, o SIN_EXPIRACION.
+    public static long expiracionMs(String token) {
+        if (token == null) return SIN_EXPIRACION;
+
+        int p1 = token.indexOf('.');
+        int p2 = p1 < 0 ? -1 : token.indexOf('.', p1 + 1);
+        if (p2 < 0) return SIN_EXPIRACION;
+
+        try {
+            byte[] json = Base64.decode(token.substring(p1 + 1, p2),
+                    Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP);
+            JSONObject payload = new JSONObject(new String(json, "UTF-8"));
+            if (!payload.has("exp")) return SIN_EXPIRACION;
+            return payload.getLong("exp") * 1000L;
+        } catch (Exception e) {
+            return SIN_EXPIRACION;
+        }
+    }
+}
@@ -6,6 +6,9 @@ public class LoginResponse {
     @SerializedName("access_token")
     private String accessToken;
 
+    @SerializedName("refresh_token")
+    private String refreshToken;
+
     @SerializedName("id_trabajador")
     private int idTrabajador;
 
@@ -23,6 +26,7 @@ public class LoginResponse {
 
     // Expone los datos de sesión que devuelve el backend tras autenticar.
     public String getAccessToken() { return accessToken; }
+    public String getRefreshToken() { return refreshToken; }
     public int getIdTrabajador() { return idTrabajador; }
     public String getNombre() { return nombre; }
     public String getRol() { return rol; }
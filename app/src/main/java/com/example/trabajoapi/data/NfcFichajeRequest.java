@@ -13,14 +13,35 @@ public class NfcFichajeRequest {
     @SerializedName("longitud")
     private final Double longitud;
 
+    // Momento real de la captura (null en peticiones que no son fichajes, como la configuración NFC).
+    @SerializedName("capturado_en")
+    private final String capturadoEn;
+
+    // Identifica este fichaje concreto para que los reintentos no lo dupliquen en servidor.
+    @SerializedName("idempotency_key")
+    private final String idempotencyKey;
+
     // Empaqueta el UID NFC y la ubicación para validación y registro en servidor.
     public NfcFichajeRequest(String nfcData, Double latitud, Double longitud) {
         this.nfcData = nfcData;
         this.latitud = latitud;
         this.longitud = longitud;
+        this.capturadoEn = null;
+        this.idempotencyKey = null;
+    }
+
+    // Variante con hora de captura y clave de idempotencia para fichajes reintentables.
+    public NfcFichajeRequest(String nfcData, Double latitud, Double longitud, String capturadoEn, String idempotencyKey) {
+        this.nfcData = nfcData;
+        this.latitud = latitud;
+        this.longitud = longitud;
+        this.capturadoEn = capturadoEn;
+        this.idempotencyKey = idempotencyKey;
     }
 
     public String getNfcData() { return nfcData; }
     public Double getLatitud() { return latitud; }
     public Double getLongitud() { return longitud; }
+    public String getCapturadoEn() { return capturadoEn; }
+    public String getIdempotencyKey() { return idempotencyKey; }
 }
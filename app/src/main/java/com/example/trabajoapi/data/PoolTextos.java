@@ -0,0 +1,28 @@
+package com.example.trabajoapi.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reutiliza la misma instancia para textos que se repiten mucho (nombres, apellidos).
+ *
+ * Tiene un tope: si se llena se vacía y vuelve a empezar, así no retiene memoria sin límite.
+ */
+final class PoolTextos {
+
+    private final int maximo;
+    private final Map<String, String> textos = new HashMap<>();
+
+    PoolTextos(int maximo) {
+        this.maximo = maximo;
+    }
+
+    synchronized String de(String s) {
+        if (s == null) return null;
+        String existente = textos.get(s);
+        if (existente != null) return existente;
+        if (textos.size() >= maximo) textos.clear();
+        textos.put(s, s);
+        return s;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.trabajoapi.data;
+
+import com.google.gson.annotations.SerializedName;
+
+public class RefreshRequest {
+    // Token de larga duración que entregó el login (o la última renovación).
+    @SerializedName("refresh_token")
+    private String refreshToken;
+
+    public RefreshRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.trabajoapi.data;
+
+import android.content.Context;
+
+import com.example.trabajoapi.data.repository.AuthRepository;
+
+import java.io.IOException;
+
+import okhttp3.Authenticator;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.Route;
+
+/**
+ * Responde a un 401 renovando el access token con el refresh token y repitiendo la petición.
+ *
+ * - La renovación es única aunque fallen varias peticiones a la vez (AuthRepository.renovarToken):
+ *   las que esperaban se repiten con el token nuevo.
+ * - Cada petición se repite como mucho una vez; si vuelve a dar 401, o el refresh token no vale,
+ *   se cierra la sesión como antes (TokenHolder.invalidar => sesionCaducada).
+ * - Si la renovación no se puede hacer (red, 408, 429, 5xx), la petición falla como error de red
+ *   y la sesión se mantiene.
+ */
+class RenovacionAuthenticator implements Authenticator {
+
+    private final Context appContext;
+
+    RenovacionAuthenticator(Context context) {
+        this.appContext = context.getApplicationContext();
+    }
+
+    @Override
+    public Request authenticate(Route route, Response response) throws IOException {
+        Request request = response.request();
+        String ruta = request.url().encodedPath();
+        if (AuthInterceptor.RUTAS_PUBLICAS.contains(ruta) || AuthInterceptor.SIN_GESTION_401.contains(ruta)) {
+            return null;
+        }
+
+        String tokenUsado = tokenDe(request);
+        if (tokenUsado == null) return null;
+
+        // Ya se repitió con un token renovado y el servidor lo sigue rechazando.
+        if (response.priorResponse() != null) {
+            TokenHolder.invalidar(tokenUsado);
+            return null;
+        }
+
+        String nuevo = AuthRepository.renovarToken(appContext, tokenUsado);
+        if (nuevo == null) {
+            TokenHolder.invalidar(tokenUsado);
+            return null;
+        }
+
+        return request.newBuilder()
+                .header("Authorization", "Bearer " + nuevo)
+                .build();
+    }
+
+    private static String tokenDe(Request request) {
+        String cabecera = request.header("Authorization");
+        if (cabecera == null || !cabecera.startsWith("Bearer ")) return null;
+        return cabecera.substring("Bearer ".length());
+    }
+}
@@ -55,7 +55,29 @@ public class ResumenResponse {
     @SerializedName("calculo_confiable")
     private boolean calculoConfiable;
 
-    // --- Getters (Gson rellena por reflexión, no hace falta constructor) ---
+    // Constructor vacío para Gson.
+    public ResumenResponse() { }
+
+    // Construye un resumen calculado en el dispositivo con la misma forma que el del backend.
+    public ResumenResponse(String mes, long teoricasSeg, long trabajadasSeg, List<String> diasIncompletos) {
+        this.mes = mes;
+        this.teoricasSeg = teoricasSeg;
+        this.trabajadasSeg = trabajadasSeg;
+        this.saldoSeg = trabajadasSeg - teoricasSeg;
+        this.teoricas = redondearHoras(teoricasSeg);
+        this.trabajadas = redondearHoras(trabajadasSeg);
+        this.saldo = redondearHoras(saldoSeg);
+        this.diasIncompletos = diasIncompletos;
+        this.numDiasIncompletos = diasIncompletos != null ? diasIncompletos.size() : 0;
+        this.calculoConfiable = numDiasIncompletos == 0;
+    }
+
+    // Pasa segundos a horas con 2 decimales, igual que los campos en horas del backend.
+    private static double redondearHoras(long segundos) {
+        return Math.round(segundos / 36.0) / 100.0;
+    }
+
+    // --- Getters ---
 
     public String getMes() {
         return mes;
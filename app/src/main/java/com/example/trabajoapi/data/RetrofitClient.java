@@ -1,44 +1,141 @@
 package com.example.trabajoapi.data;
 
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 public class RetrofitClient {
-    private static RetrofitClient instance = null;
-    private ApiService myApi;
+    // Se lee sin lock: una vez publicada la instancia, getInstance() es una lectura volátil.
+    private static volatile RetrofitClient instance = null;
+    private static final Object LOCK = new Object();
+
+    private final ApiService myApi;
+    private Cache cacheHttp;
+    private final OkHttpClient clientePrecalentar;
 
     private static final String BASE_URL = "https://SQulito.eu.pythonanywhere.com/";
 
+    // Caché HTTP en disco para las lecturas (304 => se sirve desde aquí sin volver a descargar).
+    private static final long CACHE_HTTP_BYTES = 10L * 1024 * 1024;
+    private static volatile Context appContext = null;
+
+    // Precalentamiento: una conexión abierta hace menos de esto se considera aún caliente.
+    private static final long MARGEN_CALIENTE_MS = 30_000L;
+    private static final ExecutorService PRECALENTAR = Executors.newSingleThreadExecutor();
+
     private RetrofitClient() {
-        // Construye el cliente HTTP con timeouts “realistas” para red móvil y servidor remoto.
-        OkHttpClient client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+        // AuthInterceptor va primero: firma la petición una vez y ve el resultado final tras los reintentos.
+        // Timeouts cortos por intento: los fallos transitorios los absorbe RetryInterceptor
+        // (los POST de fichaje son seguros de repetir gracias a su Idempotency-Key).
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(15, TimeUnit.SECONDS)
+                .writeTimeout(15, TimeUnit.SECONDS)
+                .eventListenerFactory(call -> new TiemposConexionListener())
+                .addInterceptor(new AuthInterceptor(appContext))
+                .addInterceptor(new RetryInterceptor());
+
+        // Un 401 se intenta resolver renovando el token antes de dar la sesión por caducada.
+        if (appContext != null) builder.authenticator(new RenovacionAuthenticator(appContext));
+
+        // Sin contexto (no debería pasar con TrabajoApiApp) se trabaja sin caché.
+        // getCacheDir() toca disco: se resuelve aquí, ya en el hilo de init.
+        if (appContext != null) {
+            cacheHttp = new Cache(new File(appContext.getCacheDir(), "http"), CACHE_HTTP_BYTES);
+            builder.cache(cacheHttp)
+                    .addNetworkInterceptor(new RevalidacionCacheInterceptor());
+        }
+
+        OkHttpClient client = builder.build();
+
+        // Mismo pool de conexiones, pero sin interceptores ni caché: solo abre DNS+TCP+TLS.
+        OkHttpClient.Builder b = client.newBuilder().cache(null);
+        b.interceptors().clear();
+        b.networkInterceptors().clear();
+        clientePrecalentar = b.build();
 
-        // Levanta Retrofit con la URL base y el convertidor JSON.
+        // Levanta Retrofit con la URL base y el convertidor JSON (Gson compartido: Rol como texto y nombres de empleados compartidos).
+        // validateEagerly procesa las anotaciones de todos los endpoints aquí (en el hilo de init)
+        // en vez de en la primera llamada a cada uno, que suele hacerse desde el hilo principal.
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl(BASE_URL)
                 .client(client)
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(JsonApi.gson()))
+                .validateEagerly(true)
                 .build();
 
         myApi = retrofit.create(ApiService.class);
     }
 
-    // Mantiene una única instancia compartida para reutilizar conexiones y configuración.
-    public static synchronized RetrofitClient getInstance() {
-        if (instance == null) {
-            instance = new RetrofitClient();
+    /**
+     * Indica dónde guardar la caché HTTP y construye el cliente en un hilo de fondo.
+     * Llamar al arrancar el proceso: así OkHttp, Gson y el proxy de Retrofit (carga de clases y
+     * reflexión) no se pagan en el hilo principal de la primera pantalla.
+     */
+    public static void init(Context context) {
+        if (appContext == null) appContext = context.getApplicationContext();
+        new Thread(RetrofitClient::getInstance, "init-retrofit").start();
+    }
+
+    /**
+     * Instancia compartida para reutilizar conexiones y configuración.
+     * Normalmente ya está construida (init); si alguien llega antes, espera a la construcción
+     * en curso en vez de hacer otra.
+     */
+    public static RetrofitClient getInstance() {
+        RetrofitClient r = instance;
+        if (r != null) return r;
+
+        synchronized (LOCK) {
+            if (instance == null) instance = new RetrofitClient();
+            return instance;
         }
-        return instance;
     }
 
     // Expone la interfaz de endpoints ya lista para usar desde repositorios y VMs.
     public ApiService getMyApi() {
         return myApi;
     }
+
+    /**
+     * Abre (o mantiene viva) la conexión con el servidor en segundo plano con un HEAD a la raíz,
+     * para que la primera acción del usuario (fichar) no pague DNS + TCP + TLS.
+     * No hace nada si ha habido tráfico hace poco: la conexión del pool sigue caliente.
+     */
+    public static void precalentar() {
+        if (System.currentTimeMillis() - TiemposConexionListener.ultimaActividadMs < MARGEN_CALIENTE_MS) return;
+
+        PRECALENTAR.execute(() -> {
+            Request head = new Request.Builder().url(BASE_URL).head().build();
+            try (okhttp3.Response ignored = getInstance().clientePrecalentar.newCall(head).execute()) {
+                // Basta con haber conectado; el código de respuesta no importa.
+            } catch (IOException ignored) {
+                // Sin red: la petición real ya se encargará de informar.
+            }
+        });
+    }
+
+    // Borra la caché HTTP (al cerrar sesión: las URLs son las mismas para cualquier usuario).
+    public static void vaciarCacheHttp() {
+        final RetrofitClient actual = instance;
+        if (actual == null || actual.cacheHttp == null) return;
+
+        // evictAll hace I/O de disco: fuera del hilo que cierra la sesión.
+        new Thread(() -> {
+            try {
+                actual.cacheHttp.evictAll();
+            } catch (IOException ignored) {
+                // Si no se puede borrar, cada lectura se revalida igualmente contra el servidor.
+            }
+        }, "vaciar-cache-http").start();
+    }
 }
@@ -0,0 +1,110 @@
+package com.example.trabajoapi.data;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Reintenta fallos transitorios con backoff exponencial con jitter.
+ *
+ * Solo se reintenta lo que es seguro repetir:
+ * - GET siempre (no cambia estado en servidor).
+ * - POST únicamente si lleva cabecera Idempotency-Key (el servidor deduplica por ella).
+ *
+ * Cada endpoint tiene su presupuesto de intentos; el login y el resto de POST sin clave no se repiten.
+ * Se consideran transitorios los errores de red y las respuestas 502/503/504.
+ */
+public class RetryInterceptor implements Interceptor {
+
+    public static final String HEADER_IDEMPOTENCIA = "Idempotency-Key";
+
+    private static final long BACKOFF_BASE_MS = 300;
+    private static final long BACKOFF_MAX_MS = 3000;
+
+    // Intentos totales (incluido el primero) por ruta.
+    private static final Map<String, Integer> PRESUPUESTOS = new HashMap<>();
+    private static final int PRESUPUESTO_GET = 2;
+
+    static {
+        PRESUPUESTOS.put("/api/fichar", 4);
+        PRESUPUESTOS.put("/api/fichar-nfc", 4);
+        PRESUPUESTOS.put("/api/dashboard", 3);
+        PRESUPUESTOS.put("/api/estado-fichaje", 3);
+        PRESUPUESTOS.put("/api/mis-fichajes", 2);
+        PRESUPUESTOS.put("/api/resumen", 2);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        int presupuesto = presupuestoPara(request);
+
+        int intento = 1;
+        while (true) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (intento >= presupuesto || chain.call().isCanceled()) throw e;
+                esperar(intento, -1);
+                intento++;
+                continue;
+            }
+
+            if (!esTransitorio(response.code()) || intento >= presupuesto || chain.call().isCanceled()) {
+                return response;
+            }
+
+            long retryAfterMs = leerRetryAfter(response);
+            response.close();
+            esperar(intento, retryAfterMs);
+            intento++;
+        }
+    }
+
+    // Decide cuántos intentos se permiten para esta petición (1 = sin reintentos).
+    private int presupuestoPara(Request request) {
+        String metodo = request.method();
+        boolean seguro = "GET".equals(metodo)
+                || ("POST".equals(metodo) && request.header(HEADER_IDEMPOTENCIA) != null);
+        if (!seguro) return 1;
+
+        Integer p = PRESUPUESTOS.get(request.url().encodedPath());
+        if (p != null) return p;
+        return "GET".equals(metodo) ? PRESUPUESTO_GET : 1;
+    }
+
+    private static boolean esTransitorio(int code) {
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    // Retry-After en segundos (si viene y es razonable); -1 si no aplica.
+    private static long leerRetryAfter(Response response) {
+        String valor = response.header("Retry-After");
+        if (valor == null) return -1;
+        try {
+            long ms = Long.parseLong(valor.trim()) * 1000L;
+            return ms >= 0 && ms <= BACKOFF_MAX_MS ? ms : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Full jitter: espera aleatoria entre 0 y base * 2^(intento-1), con tope.
+    private static void esperar(int intento, long retryAfterMs) throws IOException {
+        long techo = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(intento - 1, 10));
+        long espera = retryAfterMs >= 0 ? retryAfterMs : ThreadLocalRandom.current().nextLong(techo + 1);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Reintento interrumpido");
+        }
+    }
+}
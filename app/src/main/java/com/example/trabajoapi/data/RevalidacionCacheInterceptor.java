@@ -0,0 +1,50 @@
+package com.example.trabajoapi.data;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Interceptor de red que hace cacheables las lecturas del backend con revalidación obligatoria.
+ *
+ * El backend no envía Cache-Control, así que OkHttp no guardaría nada. Para los GET de lectura
+ * se marca la respuesta como "no-cache": se guarda en disco, pero cada uso se revalida con
+ * If-None-Match / If-Modified-Since. Si el servidor contesta 304, el cuerpo sale de la caché.
+ * Nunca se sirve un dato sin confirmar con el servidor.
+ *
+ * Si el servidor ya manda su propio Cache-Control, se respeta tal cual.
+ */
+public class RevalidacionCacheInterceptor implements Interceptor {
+
+    private static final Set<String> RUTAS_LECTURA = new HashSet<>(Arrays.asList(
+            "/api/empleados",
+            "/api/empresa/config",
+            "/api/mis-fichajes",
+            "/api/incidencias"
+    ));
+
+    private static final String PREFIJO_FICHAJES_EMPLEADO = "/api/fichajes-empleado/";
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        if (!"GET".equals(request.method()) || !esLectura(request.url().encodedPath())) return response;
+        if (response.header("Cache-Control") != null) return response;
+
+        return response.newBuilder()
+                .header("Cache-Control", "no-cache")
+                .removeHeader("Pragma")
+                .build();
+    }
+
+    private static boolean esLectura(String ruta) {
+        return RUTAS_LECTURA.contains(ruta) || ruta.startsWith(PREFIJO_FICHAJES_EMPLEADO);
+    }
+}
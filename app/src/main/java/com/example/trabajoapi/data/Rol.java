@@ -0,0 +1,67 @@
+package com.example.trabajoapi.data;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Rol de un trabajador, con una única instancia por nombre de rol.
+ *
+ * En una plantilla grande hay miles de empleados y solo un puñado de roles: todos comparten
+ * el mismo objeto, y la etiqueta en mayúsculas y si es de administración se calculan una sola vez.
+ */
+public final class Rol implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Map<String, Rol> CANONICOS = new HashMap<>();
+
+    // Rol que se asume cuando el backend no envía ninguno.
+    public static final Rol TRABAJADOR = de("Trabajador");
+
+    private final String nombre;
+    private final transient String etiqueta;
+    private final transient boolean admin;
+    private final transient boolean administrador;
+
+    private Rol(String nombre) {
+        this.nombre = nombre;
+        this.etiqueta = nombre.toUpperCase(Locale.ROOT);
+        this.admin = etiqueta.contains("ADMIN") || etiqueta.contains("GERENTE") || etiqueta.contains("JEFE");
+        this.administrador = nombre.equalsIgnoreCase("Administrador") || nombre.contains("Admin") || nombre.contains("admin");
+    }
+
+    // Instancia compartida para ese nombre de rol; null => TRABAJADOR.
+    public static Rol de(String nombre) {
+        if (nombre == null) return TRABAJADOR;
+        synchronized (CANONICOS) {
+            Rol r = CANONICOS.get(nombre);
+            if (r == null) {
+                r = new Rol(nombre);
+                CANONICOS.put(nombre, r);
+            }
+            return r;
+        }
+    }
+
+    // Nombre tal cual llega del backend.
+    public String getNombre() { return nombre; }
+
+    // Nombre en mayúsculas, para pintar.
+    public String getEtiqueta() { return etiqueta; }
+
+    // Roles con acceso al panel de administración (ADMIN, GERENTE o JEFE en el nombre).
+    public boolean esAdmin() { return admin; }
+
+    // Solo administradores ("Administrador" o "admin" en el nombre): la insignia del listado de empleados.
+    public boolean esAdministrador() { return administrador; }
+
+    // Al deserializar se vuelve a la instancia compartida.
+    private Object readResolve() {
+        return de(nombre);
+    }
+
+    @Override
+    public String toString() { return nombre; }
+}
@@ -9,6 +9,7 @@ public class SessionManager {
 
     private static final String PREF_NAME = "user_session";
     private static final String KEY_TOKEN = "token";
+    private static final String KEY_REFRESH_TOKEN = "refresh_token";
     private static final String KEY_ROL = "rol";
 
     private static final String KEY_ID_TRABAJADOR = "id_trabajador";
@@ -20,9 +21,38 @@ public class SessionManager {
         prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
     }
 
-    // Guarda el token de acceso para llamadas al backend.
+    // Guarda el token de acceso para llamadas al backend (y lo deja en memoria para AuthInterceptor).
     public void saveAuthToken(String token) {
         prefs.edit().putString(KEY_TOKEN, token).apply();
+        TokenHolder.set(token);
+    }
+
+    // Guarda access y refresh token juntos tras una renovación (commit: el refresh anterior ya no vale).
+    public void guardarTokens(String accessToken, String refreshToken) {
+        prefs.edit()
+                .putString(KEY_TOKEN, accessToken)
+                .putString(KEY_REFRESH_TOKEN, refreshToken)
+                .commit();
+        TokenHolder.set(accessToken);
+    }
+
+    // Refresh token para renovar el access token sin volver a pedir credenciales; null si el backend no lo da.
+    public String getRefreshToken() {
+        return prefs.getString(KEY_REFRESH_TOKEN, null);
+    }
+
+    /**
+     * Hay sesión con la que seguir sin pasar por login: access token vigente o, si ha caducado,
+     * un refresh token (sin "exp" o aún no caducado) con el que renovarlo. No usa la red.
+     */
+    public boolean sesionUtilizable() {
+        if (TokenHolder.get() == null) return false;
+        if (TokenHolder.vigente()) return true;
+
+        String refresh = getRefreshToken();
+        if (refresh == null) return false;
+        long exp = Jwt.expiracionMs(refresh);
+        return exp == Jwt.SIN_EXPIRACION || exp > System.currentTimeMillis();
     }
 
     // Guarda el rol para habilitar o bloquear secciones de la app.
@@ -46,7 +76,14 @@ public class SessionManager {
     }
 
     // Devuelve el token si existe, o null si la sesión no está inicializada.
+    // Se sirve desde memoria; solo se lee de disco si aún no se ha cargado TokenHolder.
     public String getAuthToken() {
+        String t = TokenHolder.get();
+        return t != null ? t : leerTokenGuardado();
+    }
+
+    // Lectura directa de preferencias (la usa TokenHolder al arrancar).
+    String leerTokenGuardado() {
         return prefs.getString(KEY_TOKEN, null);
     }
 
@@ -89,6 +126,7 @@ public class SessionManager {
     public void saveSession(LoginResponse r) {
         if (r == null) return;
         if (r.getAccessToken() != null) saveAuthToken(r.getAccessToken());
+        prefs.edit().putString(KEY_REFRESH_TOKEN, r.getRefreshToken()).apply();
         if (r.getRol() != null) saveRol(r.getRol());
         saveIdTrabajador(r.getIdTrabajador());
         saveNombre(r.getNombre());
@@ -97,14 +135,15 @@ public class SessionManager {
 
     // Decide si el usuario debe ver panel admin en base al rol recibido.
     public boolean isAdmin() {
+        // La clasificación se calcula una vez por rol (ver Rol), no en cada llamada.
         String rol = getRol();
-        if (rol == null) return false;
-        String r = rol.toUpperCase();
-        return r.contains("ADMIN") || r.contains("GERENTE") || r.contains("JEFE");
+        return rol != null && Rol.de(rol).esAdmin();
     }
 
     // Limpia toda la sesión para forzar re-login sin residuos.
     public void clearSession() {
         prefs.edit().clear().apply();
+        TokenHolder.clear();
+        RetrofitClient.vaciarCacheHttp();
     }
 }
@@ -0,0 +1,162 @@
+package com.example.trabajoapi.data;
+
+import android.util.Log;
+
+import com.example.trabajoapi.data.diagnostico.MetricasRed;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Mide cada llamada HTTP por fases y la atribuye a su endpoint de ApiService.
+ *
+ * Fases: DNS, conexión TCP, TLS, envío de la petición, TTFB (fin del envío -> primeras cabeceras),
+ * lectura del cuerpo y total. Se acumulan en MetricasRed (p50/p95/p99 por endpoint).
+ *
+ * En logcat (tag "TiemposRed") cada línea indica además si la llamada reutilizó una conexión
+ * del pool o tuvo que abrir una nueva.
+ */
+public class TiemposConexionListener extends EventListener {
+
+    private static final String TAG = "TiemposRed";
+
+    // Última vez que terminó una llamada: el precalentamiento no hace nada si la conexión está en uso.
+    static volatile long ultimaActividadMs = 0;
+
+    private long inicioNs;
+    private long dnsIniNs, conIniNs, tlsIniNs, envioIniNs, envioFinNs, cuerpoIniNs;
+    private long dnsMs = -1, conMs = -1, tlsMs = -1, envioMs = -1, ttfbMs = -1, cuerpoMs = -1;
+
+    @Override
+    public void callStart(Call call) {
+        inicioNs = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsIniNs = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        dnsMs = msDesde(dnsIniNs);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        conIniNs = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        tlsIniNs = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsMs = msDesde(tlsIniNs);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        conMs = msDesde(conIniNs);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        envioIniNs = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        envioFinNs = System.nanoTime();
+        envioMs = msEntre(envioIniNs, envioFinNs);
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        envioFinNs = System.nanoTime();
+        envioMs = msEntre(envioIniNs, envioFinNs);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        if (envioFinNs > 0) ttfbMs = msDesde(envioFinNs);
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        // Las cabeceras ya están; el cuerpo empieza a contar aquí.
+        cuerpoIniNs = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        if (cuerpoIniNs > 0) cuerpoMs = msDesde(cuerpoIniNs);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        registrar(call, null);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        registrar(call, ioe);
+    }
+
+    private void registrar(Call call, IOException error) {
+        ultimaActividadMs = System.currentTimeMillis();
+
+        String endpoint = nombreEndpoint(call.request());
+        long totalMs = msDesde(inicioNs);
+
+        MetricasRed.registrar(endpoint, MetricasRed.FASE_DNS, dnsMs);
+        MetricasRed.registrar(endpoint, MetricasRed.FASE_CONEXION, tcpMs());
+        MetricasRed.registrar(endpoint, MetricasRed.FASE_TLS, tlsMs);
+        MetricasRed.registrar(endpoint, MetricasRed.FASE_PETICION, envioMs);
+        MetricasRed.registrar(endpoint, MetricasRed.FASE_TTFB, ttfbMs);
+        MetricasRed.registrar(endpoint, MetricasRed.FASE_CUERPO, cuerpoMs);
+        MetricasRed.registrar(endpoint, error == null ? MetricasRed.FASE_TOTAL : MetricasRed.FASE_FALLO, totalMs);
+        MetricasRed.finLlamada();
+
+        String conexion = conMs < 0 && dnsMs < 0
+                ? "conexión reutilizada"
+                : "conexión nueva dns=" + dnsMs + "ms tcp=" + tcpMs() + "ms tls=" + tlsMs + "ms";
+        String resultado = error == null ? "ok" : "fallo " + error.getClass().getSimpleName();
+
+        Log.d(TAG, endpoint + " " + resultado + " total=" + totalMs + "ms ttfb=" + ttfbMs
+                + "ms (" + conexion + ")");
+    }
+
+    // connectEnd incluye el TLS: se descuenta para quedarse con el TCP puro.
+    private long tcpMs() {
+        return conMs >= 0 && tlsMs >= 0 ? conMs - tlsMs : conMs;
+    }
+
+    // Nombre del método de ApiService (Retrofit deja la Invocation en el tag); si no, método + ruta genérica.
+    private static String nombreEndpoint(Request request) {
+        Invocation inv = request.tag(Invocation.class);
+        if (inv != null) return inv.method().getName();
+        return request.method() + " " + request.url().encodedPath().replaceAll("/\\d+", "/{id}");
+    }
+
+    private static long msDesde(long inicio) {
+        return msEntre(inicio, System.nanoTime());
+    }
+
+    private static long msEntre(long inicio, long fin) {
+        return (fin - inicio) / 1_000_000L;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.trabajoapi.data;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.trabajoapi.data.common.Event;
+
+/**
+ * Token de acceso en memoria, sincronizado con SessionManager.
+ *
+ * - Se carga una sola vez de preferencias al arrancar el proceso (TrabajoApiApp).
+ * - SessionManager lo actualiza al guardar o limpiar la sesión.
+ * - AuthInterceptor lo lee en cada petición sin tocar disco.
+ * - Si el servidor rechaza el token (401), se invalida aquí y se avisa a la UI con sesionCaducada.
+ * - La caducidad del JWT ("exp") se lee una vez por token, para decidir sin red si la sesión sigue viva.
+ */
+public final class TokenHolder {
+
+    // Margen para no dar por buena una sesión que caduca justo mientras se abre la pantalla.
+    private static final long MARGEN_CADUCIDAD_MS = 30_000L;
+
+    private static volatile String token;
+    private static volatile long expiracionMs = Jwt.SIN_EXPIRACION;
+    private static volatile boolean cargado = false;
+    private static Context appContext;
+
+    private static final MutableLiveData<Event<Boolean>> sesionCaducada = new MutableLiveData<>();
+
+    private TokenHolder() { }
+
+    // Carga el token guardado. Llamar una vez al arrancar; las siguientes llamadas no hacen nada.
+    public static synchronized void init(Context context) {
+        if (cargado) return;
+        appContext = context.getApplicationContext();
+        token = new SessionManager(appContext).leerTokenGuardado();
+        expiracionMs = Jwt.expiracionMs(token);
+        cargado = true;
+    }
+
+    // Token crudo (sin "Bearer ") o null si no hay sesión.
+    public static String get() {
+        return token;
+    }
+
+    /**
+     * Hay token y, según su "exp", no ha caducado. Sin red: el servidor sigue teniendo la última palabra.
+     * Un token sin "exp" legible se considera vigente.
+     */
+    public static boolean vigente() {
+        if (token == null) return false;
+        long exp = expiracionMs;
+        return exp == Jwt.SIN_EXPIRACION || System.currentTimeMillis() + MARGEN_CADUCIDAD_MS < exp;
+    }
+
+    static void set(String nuevo) {
+        expiracionMs = Jwt.expiracionMs(nuevo);
+        token = nuevo;
+        // Una caducidad antigua que nadie llegó a consumir no debe cerrar la sesión nueva.
+        if (nuevo != null) sesionCaducada.postValue(null);
+    }
+
+    static void clear() {
+        token = null;
+    }
+
+    /**
+     * El servidor ha respondido 401 a una petición firmada con tokenRechazado.
+     * Solo se cierra la sesión si sigue siendo el token vigente (evita cerrar una sesión recién iniciada).
+     */
+    static void invalidar(String tokenRechazado) {
+        Context ctx;
+        synchronized (TokenHolder.class) {
+            if (tokenRechazado == null || !tokenRechazado.equals(token)) return;
+            token = null;
+            ctx = appContext;
+        }
+        if (ctx != null) new SessionManager(ctx).clearSession();
+        sesionCaducada.postValue(new Event<>(true));
+    }
+
+    // Evento único de sesión caducada; los ViewModels lo reenvían a su evento de logout. Puede valer null.
+    public static LiveData<Event<Boolean>> getSesionCaducada() {
+        return sesionCaducada;
+    }
+}
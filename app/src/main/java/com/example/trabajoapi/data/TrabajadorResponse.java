@@ -21,11 +21,18 @@ public class TrabajadorResponse implements Serializable {
     @SerializedName("email")
     private String email;
 
+    // Instancia compartida entre todos los empleados con el mismo rol (ver Rol).
     @SerializedName("rol_nombre")
-    private String rol;
+    private Rol rol;
 
     public TrabajadorResponse() { }
 
+    // Cambia nombre y apellidos por la instancia compartida del pool (JsonApi, al leer cada fila).
+    void compartirTextos(PoolTextos nombres, PoolTextos apellidos) {
+        this.nombre = nombres.de(this.nombre);
+        this.apellidos = apellidos.de(this.apellidos);
+    }
+
     public int getIdTrabajador() { return idTrabajador; }
 
     // Devuelve un nombre seguro para evitar nulos en pantalla.
@@ -40,7 +47,7 @@ public class TrabajadorResponse implements Serializable {
     public String getEmail() { return email; }
 
     // Devuelve un rol por defecto para mantener lógica de UI consistente.
-    public String getRol() { return rol != null ? rol : "Trabajador"; }
+    public Rol getRol() { return rol != null ? rol : Rol.TRABAJADOR; }
 
     // Construye un texto listo para mostrar en listados.
     public String getNombreCompleto() { return getNombre() + " " + getApellidos(); }
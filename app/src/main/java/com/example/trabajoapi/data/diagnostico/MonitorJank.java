@@ -0,0 +1,80 @@
+package com.example.trabajoapi.data.diagnostico;
+
+import android.util.Log;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Mide la duración de cada frame mientras una lista se está desplazando.
+ *
+ * - Solo escucha al Choreographer durante el scroll: en reposo no fuerza frames ni gasta batería.
+ * - Las duraciones van a MetricasRed (fase "frame", "endpoint" = pantalla), así que salen en la
+ *   pantalla oculta de diagnóstico con sus p50/p95/p99.
+ * - Al acabar cada gesto deja en logcat (tag "Jank") cuántos frames se pasaron del presupuesto.
+ */
+public class MonitorJank extends RecyclerView.OnScrollListener implements Choreographer.FrameCallback {
+
+    private static final String TAG = "Jank";
+
+    // Presupuesto de un frame a 60 Hz; por encima se cuenta como frame perdido.
+    private static final long PRESUPUESTO_MS = 17;
+
+    private final String pantalla;
+    private boolean activo = false;
+    private long ultimoFrameNs = 0;
+    private int frames = 0;
+    private int lentos = 0;
+    private long peorMs = 0;
+
+    private MonitorJank(String pantalla) {
+        this.pantalla = "pantalla " + pantalla;
+    }
+
+    // Empieza a vigilar el scroll de la lista; el nombre identifica la pantalla en el informe.
+    public static void vigilar(RecyclerView lista, String pantalla) {
+        lista.addOnScrollListener(new MonitorJank(pantalla));
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_IDLE) parar();
+        else iniciar();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!activo) return;
+
+        if (ultimoFrameNs > 0) {
+            long ms = (frameTimeNanos - ultimoFrameNs) / 1_000_000L;
+            MetricasRed.registrar(pantalla, MetricasRed.FASE_FRAME, ms);
+            frames++;
+            if (ms > PRESUPUESTO_MS) lentos++;
+            if (ms > peorMs) peorMs = ms;
+        }
+        ultimoFrameNs = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void iniciar() {
+        if (activo) return;
+        activo = true;
+        ultimoFrameNs = 0;
+        frames = 0;
+        lentos = 0;
+        peorMs = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void parar() {
+        if (!activo) return;
+        activo = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        if (frames > 0) {
+            Log.d(TAG, pantalla + ": " + lentos + "/" + frames + " frames > " + PRESUPUESTO_MS
+                    + "ms (peor " + peorMs + "ms)");
+        }
+    }
+}
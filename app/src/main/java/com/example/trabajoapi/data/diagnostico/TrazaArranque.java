@@ -0,0 +1,78 @@
+package com.example.trabajoapi.data.diagnostico;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * Tiempos del arranque en frío, por fases.
+ *
+ * - Cada fase abre una sección de android.os.Trace (visible en Perfetto/systrace con el mismo nombre)
+ *   y su duración va a MetricasRed con "endpoint" = "arranque <pantalla>", así que sale en la pantalla
+ *   oculta de diagnóstico con sus p50/p95/p99 junto a las latencias de red.
+ * - alPrimerFrame() registra desde el inicio de onCreate hasta que la pantalla se ha dibujado y, si es la
+ *   primera pantalla del proceso, también desde que arrancó el proceso (arranque en frío).
+ *
+ * Se usa solo desde el hilo principal: las secciones de Trace deben abrirse y cerrarse en el mismo hilo.
+ */
+public final class TrazaArranque {
+
+    public static final String FASE_PRIMER_FRAME = "primer_frame";
+    public static final String FASE_PROCESO_PRIMER_FRAME = "proceso_a_frame";
+    public static final String FASE_DIFERIDO_TOTAL = "diferido_total";
+
+    private static boolean procesoRegistrado = false;
+
+    private TrazaArranque() { }
+
+    public static String endpoint(String pantalla) {
+        return "arranque " + pantalla;
+    }
+
+    // Abre una fase; devuelve el instante de inicio para pasarlo a terminar().
+    public static long empezar(String pantalla, String fase) {
+        Trace.beginSection(pantalla + "." + fase);
+        return SystemClock.uptimeMillis();
+    }
+
+    public static void terminar(String pantalla, String fase, long desde) {
+        Trace.endSection();
+        MetricasRed.registrar(endpoint(pantalla), fase, SystemClock.uptimeMillis() - desde);
+    }
+
+    // Registra el tiempo transcurrido desde "desde" (uptimeMillis) sin abrir sección.
+    public static void hito(String pantalla, String fase, long desde) {
+        MetricasRed.registrar(endpoint(pantalla), fase, SystemClock.uptimeMillis() - desde);
+    }
+
+    /**
+     * Registra el primer frame de la pantalla y después ejecuta "despues" (puede ser null).
+     * Llamar en onCreate tras setContentView; desde = uptimeMillis al entrar en onCreate.
+     */
+    public static void alPrimerFrame(Activity activity, String pantalla, long desde, Runnable despues) {
+        View decor = activity.getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Lo encolado aquí corre cuando el recorrido de dibujo en curso ya ha terminado.
+                decor.post(() -> {
+                    hito(pantalla, FASE_PRIMER_FRAME, desde);
+                    desdeProceso(pantalla);
+                    if (despues != null) despues.run();
+                });
+                return true;
+            }
+        });
+    }
+
+    // Tiempo desde el arranque del proceso; solo cuenta la primera pantalla que se dibuja.
+    private static void desdeProceso(String pantalla) {
+        if (procesoRegistrado) return;
+        procesoRegistrado = true;
+        hito(pantalla, FASE_PROCESO_PRIMER_FRAME, Process.getStartUptimeMillis());
+    }
+}
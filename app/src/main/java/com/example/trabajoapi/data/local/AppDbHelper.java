@@ -0,0 +1,92 @@
+package com.example.trabajoapi.data.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * Base de datos local de la app (SQLite).
+ *
+ * Tablas:
+ * - fichajes_pendientes: cola persistente de fichajes que aún no han llegado al servidor
+ *   (cada uno con su clave de idempotencia, reutilizada en todos los reenvíos, y la marca
+ *   de envío en curso para que dos envíos no lo reclamen a la vez).
+ * - fichajes: copia local del historial confirmado por el servidor (clave id, índice por fecha).
+ */
+public class AppDbHelper extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "trabajoapi.db";
+    private static final int DB_VERSION = 4;
+
+    public static final String TABLA_PENDIENTES = "fichajes_pendientes";
+    public static final String TABLA_FICHAJES = "fichajes";
+
+    private static volatile AppDbHelper instance;
+
+    private AppDbHelper(Context context) {
+        super(context.getApplicationContext(), DB_NAME, null, DB_VERSION);
+    }
+
+    // Una sola conexión compartida: SQLiteOpenHelper ya serializa el acceso internamente.
+    public static AppDbHelper getInstance(Context context) {
+        AppDbHelper local = instance;
+        if (local == null) {
+            synchronized (AppDbHelper.class) {
+                local = instance;
+                if (local == null) {
+                    local = new AppDbHelper(context);
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // WAL permite leer mientras el worker escribe sin bloquear la UI.
+        db.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLA_PENDIENTES + " ("
+                + "id_local INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "id_trabajador INTEGER NOT NULL, "
+                + "capturado_en INTEGER NOT NULL, "
+                + "latitud REAL NOT NULL, "
+                + "longitud REAL NOT NULL, "
+                + "nfc_data TEXT, "
+                + "intentos INTEGER NOT NULL DEFAULT 0, "
+                + "idempotency_key TEXT, "
+                + "enviando_desde INTEGER)");
+        crearTablaFichajes(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) crearTablaFichajes(db);
+        if (oldVersion < 3) {
+            // v3: clave de idempotencia por fichaje para que los reenvíos no dupliquen en servidor.
+            db.execSQL("ALTER TABLE " + TABLA_PENDIENTES + " ADD COLUMN idempotency_key TEXT");
+        }
+        if (oldVersion < 4) {
+            // v4: instante en que un envío reclamó el pendiente (null = libre).
+            db.execSQL("ALTER TABLE " + TABLA_PENDIENTES + " ADD COLUMN enviando_desde INTEGER");
+        }
+    }
+
+    // v2: caché del historial. El índice cubre la consulta habitual (por trabajador, más reciente primero).
+    private void crearTablaFichajes(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLA_FICHAJES + " ("
+                + "id INTEGER PRIMARY KEY, "
+                + "id_trabajador INTEGER NOT NULL, "
+                + "tipo TEXT, "
+                + "fecha_hora TEXT, "
+                + "latitud REAL NOT NULL, "
+                + "longitud REAL NOT NULL)");
+        db.execSQL("CREATE INDEX idx_fichajes_trabajador_fecha ON " + TABLA_FICHAJES
+                + " (id_trabajador, fecha_hora DESC)");
+    }
+}
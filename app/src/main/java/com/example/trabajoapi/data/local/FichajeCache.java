@@ -0,0 +1,220 @@
+package com.example.trabajoapi.data.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.trabajoapi.data.FichajeResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copia local del historial de fichajes de cada trabajador.
+ *
+ * Permite pintar dashboard e historial desde disco al instante mientras
+ * el repositorio revalida contra el servidor en segundo plano.
+ * Todas las operaciones hacen I/O de disco: llamar fuera del hilo principal.
+ */
+public class FichajeCache {
+
+    // Orden del historial: fecha_hora descendente y, a igual fecha, id descendente (como las consultas de abajo).
+    public static final Comparator<FichajeResponse> MAS_RECIENTE_PRIMERO = (a, b) -> {
+        String fa = a.getFechaHora(), fb = b.getFechaHora();
+        if (fa == null || fb == null) {
+            if (fa != fb) return fa == null ? 1 : -1;
+        } else {
+            int c = fb.compareTo(fa);
+            if (c != 0) return c;
+        }
+        return Integer.compare(b.getId(), a.getId());
+    };
+
+    private final AppDbHelper db;
+
+    public FichajeCache(Context context) {
+        this.db = AppDbHelper.getInstance(context);
+    }
+
+    // Devuelve el historial guardado, más reciente primero (mismo orden que /mis-fichajes).
+    public List<FichajeResponse> leer(int idTrabajador) {
+        List<FichajeResponse> out = new ArrayList<>();
+        SQLiteDatabase rdb = db.getReadableDatabase();
+        try (Cursor c = rdb.query(
+                AppDbHelper.TABLA_FICHAJES,
+                new String[]{"id", "tipo", "fecha_hora", "latitud", "longitud"},
+                "id_trabajador = ?",
+                new String[]{String.valueOf(idTrabajador)},
+                null, null,
+                "fecha_hora DESC, id DESC")) {
+
+            while (c.moveToNext()) {
+                out.add(new FichajeResponse(
+                        c.getInt(0),
+                        c.isNull(1) ? null : c.getString(1),
+                        c.isNull(2) ? null : c.getString(2),
+                        c.getDouble(3),
+                        c.getDouble(4)
+                ));
+            }
+        }
+        return out;
+    }
+
+    // Devuelve solo los primeros fichajes (más recientes), para pintar la primera página del historial.
+    public List<FichajeResponse> leerPrimeros(int idTrabajador, int limite) {
+        List<FichajeResponse> out = new ArrayList<>();
+        SQLiteDatabase rdb = db.getReadableDatabase();
+        try (Cursor c = rdb.query(
+                AppDbHelper.TABLA_FICHAJES,
+                new String[]{"id", "tipo", "fecha_hora", "latitud", "longitud"},
+                "id_trabajador = ?",
+                new String[]{String.valueOf(idTrabajador)},
+                null, null,
+                "fecha_hora DESC, id DESC",
+                String.valueOf(limite))) {
+
+            while (c.moveToNext()) {
+                out.add(new FichajeResponse(
+                        c.getInt(0),
+                        c.isNull(1) ? null : c.getString(1),
+                        c.isNull(2) ? null : c.getString(2),
+                        c.getDouble(3),
+                        c.getDouble(4)
+                ));
+            }
+        }
+        return out;
+    }
+
+    // Devuelve solo el fichaje más reciente (o null), sin materializar todo el historial.
+    public FichajeResponse leerUltimo(int idTrabajador) {
+        SQLiteDatabase rdb = db.getReadableDatabase();
+        try (Cursor c = rdb.query(
+                AppDbHelper.TABLA_FICHAJES,
+                new String[]{"id", "tipo", "fecha_hora", "latitud", "longitud"},
+                "id_trabajador = ?",
+                new String[]{String.valueOf(idTrabajador)},
+                null, null,
+                "fecha_hora DESC, id DESC",
+                "1")) {
+
+            if (!c.moveToFirst()) return null;
+            return new FichajeResponse(
+                    c.getInt(0),
+                    c.isNull(1) ? null : c.getString(1),
+                    c.isNull(2) ? null : c.getString(2),
+                    c.getDouble(3),
+                    c.getDouble(4)
+            );
+        }
+    }
+
+    // Sustituye el historial del trabajador por la versión recién descargada.
+    public void reemplazar(int idTrabajador, List<FichajeResponse> lista) {
+        SQLiteDatabase wdb = db.getWritableDatabase();
+        wdb.beginTransaction();
+        try {
+            wdb.delete(AppDbHelper.TABLA_FICHAJES, "id_trabajador = ?", new String[]{String.valueOf(idTrabajador)});
+            for (FichajeResponse f : lista) {
+                wdb.insertWithOnConflict(AppDbHelper.TABLA_FICHAJES, null, toValues(idTrabajador, f), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            wdb.setTransactionSuccessful();
+        } finally {
+            wdb.endTransaction();
+        }
+    }
+
+    /**
+     * Sustituye la cabecera del historial (desde el fichaje más antiguo de "pagina" hasta el más reciente)
+     * por la primera página recién descargada: lo que hubiera en ese tramo y ya no esté en el servidor se borra.
+     * Lo anterior a la página no se toca. pagina viene en orden MAS_RECIENTE_PRIMERO.
+     */
+    public void reemplazarCabecera(int idTrabajador, List<FichajeResponse> pagina) {
+        if (pagina.isEmpty()) {
+            reemplazar(idTrabajador, pagina);
+            return;
+        }
+
+        FichajeResponse masAntiguo = pagina.get(pagina.size() - 1);
+        SQLiteDatabase wdb = db.getWritableDatabase();
+        wdb.beginTransaction();
+        try {
+            if (masAntiguo.getFechaHora() != null) {
+                wdb.delete(AppDbHelper.TABLA_FICHAJES,
+                        "id_trabajador = ? AND (fecha_hora > ? OR (fecha_hora = ? AND id >= ?))",
+                        new String[]{String.valueOf(idTrabajador), masAntiguo.getFechaHora(),
+                                masAntiguo.getFechaHora(), String.valueOf(masAntiguo.getId())});
+            }
+            for (FichajeResponse f : pagina) {
+                wdb.insertWithOnConflict(AppDbHelper.TABLA_FICHAJES, null, toValues(idTrabajador, f), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            wdb.setTransactionSuccessful();
+        } finally {
+            wdb.endTransaction();
+        }
+    }
+
+    // Inserta o actualiza una página de fichajes sin tocar el resto del historial guardado.
+    public void guardarTodos(int idTrabajador, List<FichajeResponse> lista) {
+        SQLiteDatabase wdb = db.getWritableDatabase();
+        wdb.beginTransaction();
+        try {
+            for (FichajeResponse f : lista) {
+                wdb.insertWithOnConflict(AppDbHelper.TABLA_FICHAJES, null, toValues(idTrabajador, f), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            wdb.setTransactionSuccessful();
+        } finally {
+            wdb.endTransaction();
+        }
+    }
+
+    // Inserta o actualiza un único fichaje (p. ej. el que acaba de confirmar el servidor).
+    public void guardar(int idTrabajador, FichajeResponse f) {
+        db.getWritableDatabase().insertWithOnConflict(
+                AppDbHelper.TABLA_FICHAJES, null, toValues(idTrabajador, f), SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Mezcla ordenada del historial local con los fichajes nuevos de una sincronización delta.
+     * local ya viene en orden MAS_RECIENTE_PRIMERO; nuevos se ordena aquí (suelen ser una o dos filas).
+     * Si un id aparece en ambas, gana la versión nueva.
+     */
+    public static List<FichajeResponse> mezclar(List<FichajeResponse> local, List<FichajeResponse> nuevos) {
+        List<FichajeResponse> n = new ArrayList<>(nuevos);
+        Collections.sort(n, MAS_RECIENTE_PRIMERO);
+
+        Set<Integer> idsNuevos = new HashSet<>();
+        for (FichajeResponse f : n) idsNuevos.add(f.getId());
+
+        List<FichajeResponse> out = new ArrayList<>(local.size() + n.size());
+        int i = 0, j = 0;
+        while (i < local.size() || j < n.size()) {
+            if (i < local.size() && idsNuevos.contains(local.get(i).getId())) {
+                i++;
+            } else if (j >= n.size()
+                    || (i < local.size() && MAS_RECIENTE_PRIMERO.compare(local.get(i), n.get(j)) <= 0)) {
+                out.add(local.get(i++));
+            } else {
+                out.add(n.get(j++));
+            }
+        }
+        return out;
+    }
+
+    private ContentValues toValues(int idTrabajador, FichajeResponse f) {
+        ContentValues cv = new ContentValues();
+        cv.put("id", f.getId());
+        cv.put("id_trabajador", idTrabajador);
+        cv.put("tipo", f.getTipo());
+        cv.put("fecha_hora", f.getFechaHora());
+        cv.put("latitud", f.getLatitud());
+        cv.put("longitud", f.getLongitud());
+        return cv;
+    }
+}
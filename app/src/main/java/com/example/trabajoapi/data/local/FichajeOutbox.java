@@ -0,0 +1,122 @@
+package com.example.trabajoapi.data.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cola persistente de fichajes pendientes de envío.
+ *
+ * Cada fichaje se escribe aquí antes de tocar la red, de forma que un corte
+ * de conexión no lo pierde: el worker de sincronización lo reenvía después.
+ * Todas las operaciones hacen I/O de disco, así que deben llamarse fuera del hilo principal.
+ */
+public class FichajeOutbox {
+
+    // Un reclamo más antiguo que esto se da por abandonado (el proceso murió a mitad de envío).
+    // Holgado frente a los reintentos de RetryInterceptor con sus timeouts.
+    private static final long RECLAMO_CADUCA_MS = 5L * 60 * 1000;
+
+    private final AppDbHelper db;
+
+    public FichajeOutbox(Context context) {
+        this.db = AppDbHelper.getInstance(context);
+    }
+
+    // Guarda un fichaje recién capturado y devuelve su id local.
+    public long encolar(int idTrabajador, long capturadoEn, double lat, double lon, String nfcData,
+                        String idempotencyKey) {
+        ContentValues cv = new ContentValues();
+        cv.put("id_trabajador", idTrabajador);
+        cv.put("capturado_en", capturadoEn);
+        cv.put("latitud", lat);
+        cv.put("longitud", lon);
+        if (nfcData != null) cv.put("nfc_data", nfcData);
+        else cv.putNull("nfc_data");
+        cv.put("intentos", 0);
+        cv.put("idempotency_key", idempotencyKey);
+        return db.getWritableDatabase().insert(AppDbHelper.TABLA_PENDIENTES, null, cv);
+    }
+
+    // Devuelve los pendientes de un trabajador en orden de captura (el servidor decide ENTRADA/SALIDA por orden).
+    public List<FichajePendiente> listarPendientes(int idTrabajador) {
+        List<FichajePendiente> out = new ArrayList<>();
+        SQLiteDatabase rdb = db.getReadableDatabase();
+        try (Cursor c = rdb.query(
+                AppDbHelper.TABLA_PENDIENTES,
+                null,
+                "id_trabajador = ?",
+                new String[]{String.valueOf(idTrabajador)},
+                null, null,
+                "capturado_en ASC, id_local ASC")) {
+
+            int iId = c.getColumnIndexOrThrow("id_local");
+            int iTrab = c.getColumnIndexOrThrow("id_trabajador");
+            int iCap = c.getColumnIndexOrThrow("capturado_en");
+            int iLat = c.getColumnIndexOrThrow("latitud");
+            int iLon = c.getColumnIndexOrThrow("longitud");
+            int iNfc = c.getColumnIndexOrThrow("nfc_data");
+            int iKey = c.getColumnIndexOrThrow("idempotency_key");
+
+            while (c.moveToNext()) {
+                out.add(new FichajePendiente(
+                        c.getLong(iId),
+                        c.getInt(iTrab),
+                        c.getLong(iCap),
+                        c.getDouble(iLat),
+                        c.getDouble(iLon),
+                        c.isNull(iNfc) ? null : c.getString(iNfc),
+                        // Filas anteriores a v3 no tienen clave: se les asigna una estable derivada del id local.
+                        c.isNull(iKey) ? "local-" + c.getLong(iId) : c.getString(iKey)
+                ));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Marca el pendiente como "en envío" antes de mandarlo.
+     * Devuelve false si otro envío ya lo tiene reclamado (y el reclamo no ha caducado): no se debe enviar.
+     */
+    public boolean reclamar(long idLocal) {
+        long ahora = System.currentTimeMillis();
+        ContentValues cv = new ContentValues();
+        cv.put("enviando_desde", ahora);
+        return db.getWritableDatabase().update(
+                AppDbHelper.TABLA_PENDIENTES,
+                cv,
+                "id_local = ? AND (enviando_desde IS NULL OR enviando_desde < ?)",
+                new String[]{String.valueOf(idLocal), String.valueOf(ahora - RECLAMO_CADUCA_MS)}
+        ) == 1;
+    }
+
+    // Devuelve el pendiente a la cola sin contar intento (p. ej. sesión caducada).
+    public void liberar(long idLocal) {
+        db.getWritableDatabase().execSQL(
+                "UPDATE " + AppDbHelper.TABLA_PENDIENTES + " SET enviando_desde = NULL WHERE id_local = ?",
+                new Object[]{idLocal}
+        );
+    }
+
+    // Incrementa el contador de intentos tras un envío fallido y libera el reclamo.
+    public void marcarIntento(long idLocal) {
+        db.getWritableDatabase().execSQL(
+                "UPDATE " + AppDbHelper.TABLA_PENDIENTES
+                        + " SET intentos = intentos + 1, enviando_desde = NULL WHERE id_local = ?",
+                new Object[]{idLocal}
+        );
+    }
+
+    // Quita un fichaje de la cola cuando el servidor ya lo ha procesado (aceptado o rechazado).
+    public void eliminar(long idLocal) {
+        db.getWritableDatabase().delete(
+                AppDbHelper.TABLA_PENDIENTES,
+                "id_local = ?",
+                new String[]{String.valueOf(idLocal)}
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.trabajoapi.data.local;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Fichaje capturado en el dispositivo que todavía no se ha confirmado en el servidor.
+ */
+public class FichajePendiente {
+
+    private final long idLocal;
+    private final int idTrabajador;
+    private final long capturadoEn;
+    private final double latitud;
+    private final double longitud;
+    private final String nfcData;
+    private final String idempotencyKey;
+
+    public FichajePendiente(long idLocal, int idTrabajador, long capturadoEn,
+                            double latitud, double longitud, String nfcData, String idempotencyKey) {
+        this.idLocal = idLocal;
+        this.idTrabajador = idTrabajador;
+        this.capturadoEn = capturadoEn;
+        this.latitud = latitud;
+        this.longitud = longitud;
+        this.nfcData = nfcData;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public long getIdLocal() { return idLocal; }
+    public int getIdTrabajador() { return idTrabajador; }
+
+    // Hora de captura (no la del envío) en ISO-8601 con zona, tal como la espera el backend.
+    public String getCapturadoEnIso() {
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.US).format(new Date(capturadoEn));
+    }
+
+    public double getLatitud() { return latitud; }
+    public double getLongitud() { return longitud; }
+
+    // UID NFC leído, o null si fue un fichaje manual por GPS.
+    public String getNfcData() { return nfcData; }
+
+    // Clave generada al capturar; el servidor la usa para no registrar dos veces el mismo fichaje.
+    public String getIdempotencyKey() { return idempotencyKey; }
+
+    public boolean esNfc() { return nfcData != null; }
+}
@@ -0,0 +1,37 @@
+package com.example.trabajoapi.data.local;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.Locale;
+
+/**
+ * Guarda las horas teóricas que devuelve /api/resumen para cada mes.
+ *
+ * El cálculo local del resumen necesita este dato (depende del calendario
+ * laboral del backend), así que se recuerda el último valor recibido.
+ */
+public class ResumenPrefs {
+
+    private static final String PREF_NAME = "resumen_cache";
+
+    private final SharedPreferences prefs;
+
+    public ResumenPrefs(Context context) {
+        prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    }
+
+    // Guarda los segundos teóricos de un mes para un trabajador.
+    public void guardarTeoricas(int idTrabajador, int anio, int mes, long teoricasSeg) {
+        prefs.edit().putLong(clave(idTrabajador, anio, mes), teoricasSeg).apply();
+    }
+
+    // Devuelve los segundos teóricos conocidos o -1 si aún no se han recibido del servidor.
+    public long getTeoricas(int idTrabajador, int anio, int mes) {
+        return prefs.getLong(clave(idTrabajador, anio, mes), -1L);
+    }
+
+    private String clave(int idTrabajador, int anio, int mes) {
+        return String.format(Locale.US, "teoricas_%d_%04d_%02d", idTrabajador, anio, mes);
+    }
+}
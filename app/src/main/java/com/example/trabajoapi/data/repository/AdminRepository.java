@@ -1,54 +1,114 @@
 package com.example.trabajoapi.data.repository;
 
+import androidx.annotation.NonNull;
+
 import com.example.trabajoapi.data.ApiService;
 import com.example.trabajoapi.data.EmpresaConfigResponse;
 import com.example.trabajoapi.data.FichajeResponse;
+import com.example.trabajoapi.data.JsonApi;
 import com.example.trabajoapi.data.NfcFichajeRequest;
 import com.example.trabajoapi.data.RetrofitClient;
 import com.example.trabajoapi.data.TrabajadorResponse;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
+import retrofit2.Response;
 
 public class AdminRepository {
 
+    // Filas por bloque al leer historiales en streaming: suficiente para llenar la primera pantalla.
+    private static final int TAM_BLOQUE = 100;
+
+    // Fichajes por página del historial de un empleado (paginación por cursor, before_id/limit).
+    public static final int TAM_PAGINA = 200;
+
+    // Lectura de cuerpos en streaming: no puede hacerse en el hilo principal.
+    private static final ExecutorService STREAM = Executors.newSingleThreadExecutor();
+
+    /**
+     * Resultado de una lectura por bloques. Se invoca desde un hilo de fondo.
+     * Si la llamada se cancela no se avisa de nada.
+     */
+    public interface BloquesCallback<T> {
+        void onBloque(@NonNull List<T> bloque);
+        void onFin(int total);
+        void onErrorServidor(int code);
+        void onFallo(@NonNull Throwable t);
+    }
+
     private final ApiService api;
 
     public AdminRepository() {
         // Centraliza las llamadas del panel admin con el mismo cliente Retrofit.
+        // Los GET van envueltos en LlamadaCompartida: pantallas que piden lo mismo a la vez comparten red.
         this.api = RetrofitClient.getInstance().getMyApi();
     }
 
     // Pide la lista de empleados disponible para el rol administrador.
-    public Call<List<TrabajadorResponse>> getEmpleados(String bearerToken) {
-        return api.getEmpleados(bearerToken);
+    public Call<List<TrabajadorResponse>> getEmpleados() {
+        return LlamadaCompartida.de(api.getEmpleados());
     }
 
-    // Devuelve el Call del historial del empleado para poder controlarlo desde el VM.
-    public Call<List<FichajeResponse>> getFichajesDeEmpleado(String token, int idEmpleado) {
-        return RetrofitClient.getInstance().getMyApi().getFichajesEmpleado(token, idEmpleado);
+    /**
+     * Una página del historial del empleado (antesDeId null = la primera), leída en streaming:
+     * entrega bloques de TAM_BLOQUE fichajes según llegan, sin esperar (ni guardar) el cuerpo completo.
+     * onFin recibe cuántos trae la página; si llega a TAM_PAGINA puede haber más.
+     * Devuelve el Call para poder cancelarlo desde el VM.
+     * No pasa por LlamadaCompartida: un cuerpo en streaming solo lo puede leer un consumidor.
+     */
+    public Call<ResponseBody> getFichajesDeEmpleadoPorBloques(int idEmpleado, Integer antesDeId,
+                                                              BloquesCallback<FichajeResponse> callback) {
+        Call<ResponseBody> call = api.getFichajesEmpleadoStream(idEmpleado, antesDeId, TAM_PAGINA);
+
+        STREAM.execute(() -> {
+            try {
+                Response<ResponseBody> response = call.execute();
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    callback.onErrorServidor(response.code());
+                    return;
+                }
+
+                try {
+                    int total = JsonApi.leerListaPorBloques(body.charStream(), FichajeResponse.class,
+                            TAM_BLOQUE, callback::onBloque);
+                    callback.onFin(total);
+                } finally {
+                    body.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Cancelar corta el socket y la lectura acaba aquí: no es un error para el usuario.
+                if (!call.isCanceled()) callback.onFallo(e);
+            }
+        });
+
+        return call;
     }
 
     // Variante equivalente usando la instancia ya guardada en el repositorio.
-    public Call<List<FichajeResponse>> getFichajesEmpleado(String bearerToken, int idEmpleado) {
-        return api.getFichajesEmpleado(bearerToken, idEmpleado);
+    public Call<List<FichajeResponse>> getFichajesEmpleado(int idEmpleado) {
+        return LlamadaCompartida.de(api.getFichajesEmpleado(idEmpleado));
     }
 
     // Carga la configuración actual de ubicación/radio de la empresa.
-    public Call<EmpresaConfigResponse> getEmpresaConfig(String bearerToken) {
-        return api.getEmpresaConfig(bearerToken);
+    public Call<EmpresaConfigResponse> getEmpresaConfig() {
+        return LlamadaCompartida.de(api.getEmpresaConfig());
     }
 
     // Envía la configuración nueva de ubicación/radio al backend.
-    public Call<Void> updateEmpresaConfig(String bearerToken, EmpresaConfigResponse config) {
-        return api.updateEmpresaConfig(bearerToken, config);
+    public Call<Void> updateEmpresaConfig(EmpresaConfigResponse config) {
+        return api.updateEmpresaConfig(config);
     }
 
     // Guarda el NFC principal de la empresa para que el fichaje NFC se pueda validar.
-    public void updateEmpresaNfc(String token, String nfcData, Callback<Void> callback) {
+    public void updateEmpresaNfc(String nfcData, Callback<Void> callback) {
         NfcFichajeRequest request = new NfcFichajeRequest(nfcData, 0.0, 0.0);
-        api.updateEmpresaNfc(token, request).enqueue(callback);
+        api.updateEmpresaNfc(request).enqueue(callback);
     }
 }
@@ -1,12 +1,21 @@
 package com.example.trabajoapi.data.repository;
 
+import android.content.Context;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.trabajoapi.data.ApiService;
 import com.example.trabajoapi.data.LoginRequest;
 import com.example.trabajoapi.data.LoginResponse;
+import com.example.trabajoapi.data.RefreshRequest;
 import com.example.trabajoapi.data.ResetPasswordRequest;
+import com.example.trabajoapi.data.RetrofitClient;
+import com.example.trabajoapi.data.SessionManager;
+import com.example.trabajoapi.data.TokenHolder;
+import com.example.trabajoapi.work.TrabajadorRenovarTokenScheduler;
+
+import java.io.IOException;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -14,6 +23,9 @@ import retrofit2.Response;
 
 public class AuthRepository {
 
+    // Solo una renovación a la vez en todo el proceso (ver renovarToken).
+    private static final Object LOCK_RENOVACION = new Object();
+
     private final ApiService api;
 
     public AuthRepository(ApiService api) {
@@ -31,6 +43,45 @@ public class AuthRepository {
         api.resetPassword(new ResetPasswordRequest(email)).enqueue(callback);
     }
 
+    /**
+     * Cambia el refresh token guardado por un access token nuevo, de forma síncrona (hilo de red o worker).
+     *
+     * - Single-flight: si varias peticiones reciben 401 a la vez, solo la primera llama a api/refresh;
+     *   las demás esperan y reutilizan el token que ya ha quedado en TokenHolder.
+     * - Devuelve el token nuevo, o null si no hay sesión o el servidor rechaza el refresh token
+     *   con 400/401/403 (entonces sí hay que volver a login).
+     * - Lanza IOException en cualquier otro caso (red, 408, 429, 5xx, respuesta sin token):
+     *   no se sabe si el refresh token vale, así que la sesión no se da por perdida.
+     */
+    public static String renovarToken(Context context, String tokenUsado) throws IOException {
+        synchronized (LOCK_RENOVACION) {
+            String actual = TokenHolder.get();
+            if (actual == null) return null;
+            // Otra petición ya lo renovó mientras esta esperaba.
+            if (!actual.equals(tokenUsado)) return actual;
+
+            SessionManager sm = new SessionManager(context);
+            String refresh = sm.getRefreshToken();
+            if (refresh == null) return null;
+
+            ApiService api = RetrofitClient.getInstance().getMyApi();
+            Response<LoginResponse> resp = api.refresh(new RefreshRequest(refresh)).execute();
+
+            int code = resp.code();
+            if (code == 400 || code == 401 || code == 403) return null;
+
+            LoginResponse r = resp.body();
+            if (!resp.isSuccessful() || r == null || r.getAccessToken() == null) {
+                throw new IOException("HTTP " + code + " al renovar la sesión");
+            }
+
+            // Si el backend no rota el refresh token, se sigue usando el mismo.
+            sm.guardarTokens(r.getAccessToken(), r.getRefreshToken() != null ? r.getRefreshToken() : refresh);
+            TrabajadorRenovarTokenScheduler.programar(context);
+            return r.getAccessToken();
+        }
+    }
+
     // Mantiene el flujo antiguo basado en LiveData para compatibilidad con pantallas previas.
     public LiveData<Result<LoginResponse>> login(String nif, String password) {
         MutableLiveData<Result<LoginResponse>> live = new MutableLiveData<>();
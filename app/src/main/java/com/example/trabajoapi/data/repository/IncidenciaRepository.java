@@ -11,6 +11,9 @@ import retrofit2.Call;
 
 public class IncidenciaRepository {
 
+    // Incidencias por página del historial; un servidor sin paginar devuelve más y se toma como la lista entera.
+    public static final int TAM_PAGINA = 50;
+
     private final ApiService api;
 
     public IncidenciaRepository() {
@@ -19,12 +22,12 @@ public class IncidenciaRepository {
     }
 
     // Prepara la petición de alta de incidencia y devuelve el Call para encolar/cancelar.
-    public Call<Void> crearIncidencia(String bearer, IncidenciaRequest request) {
-        return api.crearIncidencia(bearer, request);
+    public Call<Void> crearIncidencia(IncidenciaRequest request) {
+        return api.crearIncidencia(request);
     }
 
-    // Prepara la petición del historial del usuario y devuelve el Call para encolar/cancelar.
-    public Call<List<IncidenciaResponse>> getMisIncidencias(String bearer) {
-        return api.getMisIncidencias(bearer);
+    // Prepara una página del historial del usuario (desde = cuántas se llevan) y devuelve el Call para encolar/cancelar.
+    public Call<List<IncidenciaResponse>> getMisIncidencias(int desde) {
+        return api.getMisIncidencias(desde, TAM_PAGINA);
     }
 }
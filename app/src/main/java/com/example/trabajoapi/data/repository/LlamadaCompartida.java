@@ -0,0 +1,208 @@
+package com.example.trabajoapi.data.repository;
+
+import androidx.annotation.NonNull;
+
+import com.example.trabajoapi.data.TokenHolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Call de Retrofit que comparte la petición de red con otras idénticas en vuelo (single-flight).
+ *
+ * Dos peticiones son idénticas si coinciden método, URL completa (con query) y token de sesión.
+ * La primera en hacer enqueue lanza la llamada real; las demás se apuntan y reciben la misma respuesta.
+ * cancel() solo desengancha a quien cancela: la llamada real se cancela cuando ya no queda nadie esperando.
+ *
+ * El cuerpo deserializado se reparte: si es una lista, cada uno recibe su propia copia (se puede ordenar,
+ * recortar o guardar sin afectar al resto); los objetos de dentro son compartidos y se tratan como de
+ * solo lectura, igual que cualquier DTO recibido del backend.
+ *
+ * Solo tiene sentido para GET: los POST no deben compartirse.
+ */
+public class LlamadaCompartida<T> implements Call<T> {
+
+    // Vuelos en curso por clave; compartido por todos los repositorios (se protege con su propio lock).
+    private static final Map<String, Vuelo<?>> EN_VUELO = new HashMap<>();
+
+    private final Call<T> real;
+    private volatile boolean ejecutada = false;
+    private volatile boolean cancelada = false;
+    private Vuelo<T> vuelo;
+    private Callback<T> callback;
+
+    private LlamadaCompartida(Call<T> real) {
+        this.real = real;
+    }
+
+    // Envuelve una llamada para que se agrupe con las idénticas que ya estén en curso.
+    public static <T> Call<T> de(Call<T> real) {
+        return new LlamadaCompartida<>(real);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void enqueue(@NonNull Callback<T> callback) {
+        synchronized (this) {
+            if (ejecutada) throw new IllegalStateException("Already executed.");
+            ejecutada = true;
+            this.callback = callback;
+        }
+
+        String clave = clave(real.request());
+        boolean lanzar = false;
+        Vuelo<T> v;
+
+        synchronized (EN_VUELO) {
+            v = (Vuelo<T>) EN_VUELO.get(clave);
+            if (v == null) {
+                v = new Vuelo<>(clave, real);
+                EN_VUELO.put(clave, v);
+                lanzar = true;
+            }
+            v.esperando.add(this);
+            vuelo = v;
+        }
+
+        if (lanzar) v.lanzar();
+    }
+
+    @Override
+    public void cancel() {
+        cancelada = true;
+        Vuelo<T> v;
+        synchronized (EN_VUELO) {
+            v = vuelo;
+            if (v == null) {
+                real.cancel();
+                return;
+            }
+            v.esperando.remove(this);
+            if (!v.esperando.isEmpty()) return;
+            if (EN_VUELO.get(v.clave) == v) EN_VUELO.remove(v.clave);
+        }
+        v.real.cancel();
+    }
+
+    // Las llamadas síncronas (workers) no se agrupan: van directas.
+    @NonNull
+    @Override
+    public Response<T> execute() throws IOException {
+        synchronized (this) {
+            if (ejecutada) throw new IllegalStateException("Already executed.");
+            ejecutada = true;
+        }
+        return real.execute();
+    }
+
+    @Override
+    public boolean isExecuted() { return ejecutada; }
+
+    @Override
+    public boolean isCanceled() { return cancelada; }
+
+    @NonNull
+    @Override
+    public Call<T> clone() { return new LlamadaCompartida<>(real.clone()); }
+
+    @NonNull
+    @Override
+    public Request request() { return real.request(); }
+
+    @NonNull
+    @Override
+    public Timeout timeout() { return real.timeout(); }
+
+    // El token lo añade AuthInterceptor más tarde, así que se toma del TokenHolder.
+    private static String clave(Request r) {
+        String token = TokenHolder.get();
+        return r.method() + " " + r.url() + " " + (token != null ? token : "");
+    }
+
+    // Petición real en curso y quienes esperan su resultado.
+    private static final class Vuelo<T> {
+        final String clave;
+        final Call<T> real;
+        final List<LlamadaCompartida<T>> esperando = new ArrayList<>();
+
+        Vuelo(String clave, Call<T> real) {
+            this.clave = clave;
+            this.real = real;
+        }
+
+        void lanzar() {
+            real.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                    List<LlamadaCompartida<T>> destinos = cerrar();
+                    byte[] error = destinos.size() > 1 ? leerError(response) : null;
+
+                    // Las copias se hacen antes de entregar nada: el primero podría pasar su lista a otro hilo.
+                    List<Response<T>> respuestas = new ArrayList<>(destinos.size());
+                    for (int i = 0; i < destinos.size(); i++) {
+                        if (error != null) respuestas.add(copiarError(response, error));
+                        else respuestas.add(i == 0 ? response : copiarCuerpo(response));
+                    }
+
+                    for (int i = 0; i < destinos.size(); i++) {
+                        LlamadaCompartida<T> l = destinos.get(i);
+                        if (l.cancelada) continue;
+                        l.callback.onResponse(l, respuestas.get(i));
+                    }
+                }
+
+                @Override
+                public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                    for (LlamadaCompartida<T> l : cerrar()) {
+                        if (l.cancelada) continue;
+                        l.callback.onFailure(l, t);
+                    }
+                }
+            });
+        }
+
+        // Saca el vuelo del registro: a partir de aquí, una petición idéntica vuelve a ir a red.
+        private List<LlamadaCompartida<T>> cerrar() {
+            synchronized (EN_VUELO) {
+                if (EN_VUELO.get(clave) == this) EN_VUELO.remove(clave);
+                return new ArrayList<>(esperando);
+            }
+        }
+
+        // El errorBody es un stream de un solo uso: se lee una vez para poder repartirlo.
+        private byte[] leerError(Response<T> response) {
+            ResponseBody eb = response.errorBody();
+            if (response.isSuccessful() || eb == null) return null;
+            try {
+                return eb.bytes();
+            } catch (IOException e) {
+                return new byte[0];
+            }
+        }
+
+        // Misma respuesta con una lista nueva (mismos elementos) si el cuerpo es una lista.
+        @SuppressWarnings("unchecked")
+        private Response<T> copiarCuerpo(Response<T> original) {
+            T body = original.body();
+            if (!(body instanceof List)) return original;
+            return Response.success((T) new ArrayList<>((List<?>) body), original.raw());
+        }
+
+        private Response<T> copiarError(Response<T> original, byte[] error) {
+            ResponseBody eb = original.errorBody();
+            MediaType tipo = eb != null ? eb.contentType() : null;
+            return Response.error(ResponseBody.create(tipo, error), original.raw());
+        }
+    }
+}
@@ -1,58 +1,868 @@
 package com.example.trabajoapi.data.repository;
 
+import android.content.Context;
+import android.util.Log;
+
 import androidx.annotation.NonNull;
 
 import com.example.trabajoapi.data.ApiService;
 import com.example.trabajoapi.data.ChangePasswordRequest;
+import com.example.trabajoapi.data.DashboardResponse;
+import com.example.trabajoapi.data.EstadoFichajeResponse;
 import com.example.trabajoapi.data.FichajeRequest;
 import com.example.trabajoapi.data.FichajeResponse;
 import com.example.trabajoapi.data.NfcFichajeRequest;
 import com.example.trabajoapi.data.RecordatorioResponse;
 import com.example.trabajoapi.data.ResumenResponse;
 import com.example.trabajoapi.data.RetrofitClient;
+import com.example.trabajoapi.data.SessionManager;
+import com.example.trabajoapi.data.local.FichajeCache;
+import com.example.trabajoapi.data.local.FichajeOutbox;
+import com.example.trabajoapi.data.local.FichajePendiente;
+import com.example.trabajoapi.data.local.ResumenPrefs;
+import com.example.trabajoapi.data.resumen.CalculadoraResumen;
+import com.example.trabajoapi.work.TrabajadorFichajesPendientes;
+import com.example.trabajoapi.work.TrabajadorFichajesPendientesScheduler;
 
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import retrofit2.Call;
 import retrofit2.Callback;
+import retrofit2.Response;
 
 public class MainRepository {
 
+    /**
+     * Resultado de un intento de fichaje:
+     * - onEncolado: ya está guardado en la cola local; llega en milisegundos y la UI puede confirmar el toque.
+     * - onRespuesta: después, el servidor ha contestado (éxito o error de negocio).
+     * - onGuardadoSinConexion: después, no se pudo enviar (sin red, 5xx, 408/429 o detrás de otros pendientes);
+     *   sigue en la cola y el worker lo enviará solo.
+     * - onError: ni siquiera se pudo guardar en local y tampoco hubo red (sin onEncolado previo).
+     */
+    public interface FichajeCallback {
+        void onEncolado();
+        void onRespuesta(@NonNull Response<FichajeResponse> response);
+        void onGuardadoSinConexion();
+        void onError(@NonNull Throwable t);
+    }
+
+    // Cómo terminó un vaciado de la cola (vaciarCola).
+    public enum ResultadoCola {
+        // No queda nada pendiente del trabajador.
+        VACIA,
+        // Algo no se pudo enviar (red, 5xx, 408/429 o reclamado por otro envío): hay que reintentar más tarde.
+        REINTENTAR,
+        // El servidor rechazó la sesión: los pendientes esperan a que el usuario vuelva a entrar.
+        SIN_SESION
+    }
+
+    // Respuesta definitiva de un pendiente (2xx aceptado o 4xx de negocio); cuando llega ya está fuera de la cola.
+    // Un rechazo hay que hacérselo saber al usuario: ya vio el fichaje como hecho.
+    public interface EnvioPendienteListener {
+        void onProcesado(@NonNull FichajePendiente p, @NonNull Response<FichajeResponse> response);
+    }
+
+    /**
+     * Resultado del historial con caché local (stale-while-revalidate):
+     * - onDatos se llama primero con lo guardado en disco (desdeCache = true, solo si hay algo)
+     *   y después con la versión revalidada del servidor (desdeCache = false).
+     * - onErrorServidor / onFallo solo informan de la revalidación; lo pintado desde caché sigue siendo válido.
+     */
+    public interface HistorialCallback {
+        void onDatos(@NonNull List<FichajeResponse> lista, boolean desdeCache);
+        void onErrorServidor(@NonNull Response<List<FichajeResponse>> response);
+        void onFallo(@NonNull Throwable t);
+    }
+
+    /**
+     * Resultado de una página del historial (paginación por cursor):
+     * - onPagina puede llegar primero con la caché local (solo para la primera página) y luego con la del servidor.
+     * - hayMas indica si merece la pena pedir la siguiente página.
+     */
+    public interface PaginaCallback {
+        void onPagina(@NonNull List<FichajeResponse> pagina, boolean desdeCache, boolean hayMas);
+        void onErrorServidor(int code);
+        void onFallo(@NonNull Throwable t);
+    }
+
+    /**
+     * Resultado del estado de presencia (dentro/fuera):
+     * - onEstado puede llegar dos veces: primero desde caché local y luego confirmado por el servidor.
+     * - onErrorServidor / onFallo informan de la consulta remota.
+     */
+    public interface EstadoCallback {
+        void onEstado(boolean dentro, boolean desdeCache);
+        void onErrorServidor(int code);
+        void onFallo(@NonNull Throwable t);
+    }
+
+    /**
+     * Resultado de la carga del dashboard (estado + resumen + recordatorio):
+     * - onLocal adelanta lo que se puede saber sin red (estado de la caché más la cola pendiente y resumen calculado);
+     *   cualquiera de los dos puede venir a null. Solo se llama si hay algo.
+     * - onServidor llega una sola vez con las tres partes juntas; las que no se pudieron obtener vienen a null
+     *   (recordatorio null = nada que avisar).
+     * - onFallo: no se obtuvo nada del servidor (ni estado ni resumen).
+     */
+    public interface DashboardCallback {
+        void onLocal(Boolean dentro, ResumenResponse resumen);
+        void onServidor(Boolean dentro, ResumenResponse resumen, RecordatorioResponse recordatorio);
+        void onFallo(@NonNull Throwable t);
+    }
+
+    private static final String TAG = "MainRepository";
+
+    // Diferencia tolerada entre el cálculo local y el del servidor (redondeos de segundos).
+    private static final long MARGEN_CONTRASTE_SEG = 60;
+
+    // Un único hilo de disco compartido: las escrituras de la cola quedan ordenadas.
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor();
+
+    // Envíos de la cola desde la app (bloquean en red, así que no van por IO).
+    private static final ExecutorService ENVIO = Executors.newSingleThreadExecutor();
+
+    // Un solo vaciado de la cola a la vez en el proceso (app o worker), siempre en orden de captura.
+    private static final Object LOCK_COLA = new Object();
+
+    // Fichajes por página en el historial paginado.
+    public static final int TAM_PAGINA_HISTORIAL = 50;
+
+    // Cada cuánto se vuelve a descargar la cabecera (o el historial entero) aunque haya caché: el delta no ve borrados ni correcciones.
+    private static final long INTERVALO_SYNC_COMPLETA_MS = 6L * 60 * 60 * 1000;
+
+    // Última vez (y de qué trabajador) que la cabecera de la caché quedó igual que el servidor: historial
+    // completo o primera página descargada entera. Mientras sea reciente basta con el delta. Solo hilo IO.
+    private static long ultimaSyncCompletaMs = 0;
+    private static int ultimaSyncCompletaTrabajador = -1;
+
+    // Se pone a false la primera vez que el servidor responde que no conoce /estado-fichaje.
+    private static volatile boolean estadoEndpointDisponible = true;
+
+    // Igual para /dashboard: sin él se piden las tres partes por separado y en paralelo.
+    private static volatile boolean dashboardEndpointDisponible = true;
+
     private final ApiService api;
+    private final Context appContext;
+    private final SessionManager sessionManager;
+    private final FichajeOutbox outbox;
+    private final FichajeCache cache;
+    private final ResumenPrefs resumenPrefs;
+
+    // Calculadora incremental del mes en curso; solo se toca desde el hilo IO.
+    private CalculadoraResumen calculadora;
 
-    public MainRepository() {
+    public MainRepository(Context context) {
         // Centraliza el acceso a la API para no repetir inicialización en cada pantalla/VM.
         this.api = RetrofitClient.getInstance().getMyApi();
+        this.appContext = context.getApplicationContext();
+        this.sessionManager = new SessionManager(appContext);
+        this.outbox = new FichajeOutbox(appContext);
+        this.cache = new FichajeCache(appContext);
+        this.resumenPrefs = new ResumenPrefs(appContext);
     }
 
-    // Pide el historial de fichajes del usuario.
-    public void obtenerHistorial(String token, Callback<List<FichajeResponse>> callback) {
-        api.obtenerHistorial(token).enqueue(callback);
+    // Todas las lecturas (GET) pasan por LlamadaCompartida: si el dashboard, onResume y el diálogo
+    // piden lo mismo a la vez, sale una sola petición y la respuesta se reparte.
+
+    /**
+     * Una página del historial propio, más reciente primero.
+     * - antesDeId null pide la primera página y, si hay caché, la entrega antes desde disco.
+     *   Si la cabecera de la caché está al día, la revalidación solo pide lo posterior al último id
+     *   (tras un fichaje, una fila) y lo mezcla con lo local en vez de descargar la página entera.
+     * - Cada página descargada se guarda en la caché sin borrar el resto.
+     * - Si el servidor no pagina (devuelve más de lo pedido), es el historial entero: se entrega sin más páginas.
+     */
+    public void obtenerPaginaHistorial(Integer antesDeId, PaginaCallback callback) {
+        final int idTrabajador = sessionManager.getIdTrabajador();
+
+        IO.execute(() -> {
+            if (antesDeId == null) {
+                List<FichajeResponse> local = null;
+                try {
+                    local = cache.leerPrimeros(idTrabajador, TAM_PAGINA_HISTORIAL);
+                    if (!local.isEmpty()) callback.onPagina(local, true, false);
+                } catch (Exception ignored) {
+                    // Una caché ilegible no debe impedir la carga desde red.
+                }
+
+                if (local != null && !local.isEmpty() && cabeceraAlDia(idTrabajador)) {
+                    revalidarPrimeraPaginaDelta(idTrabajador, local, callback);
+                    return;
+                }
+            }
+
+            LlamadaCompartida.de(api.obtenerHistorialPagina(antesDeId, TAM_PAGINA_HISTORIAL))
+                    .enqueue(new Callback<List<FichajeResponse>>() {
+                @Override
+                public void onResponse(@NonNull Call<List<FichajeResponse>> call, @NonNull Response<List<FichajeResponse>> response) {
+                    if (!response.isSuccessful() || response.body() == null) {
+                        callback.onErrorServidor(response.code());
+                        return;
+                    }
+
+                    List<FichajeResponse> pagina = response.body();
+                    boolean sinPaginacion = pagina.size() > TAM_PAGINA_HISTORIAL;
+                    callback.onPagina(pagina, false, pagina.size() == TAM_PAGINA_HISTORIAL);
+
+                    IO.execute(() -> {
+                        if (sinPaginacion || (antesDeId == null && pagina.size() < TAM_PAGINA_HISTORIAL)) {
+                            // Es el historial entero.
+                            reemplazarCache(idTrabajador, pagina);
+                        } else if (antesDeId == null) {
+                            cache.reemplazarCabecera(idTrabajador, pagina);
+                            marcarCabeceraAlDia(idTrabajador);
+                            calculadora = null;
+                        } else {
+                            cache.guardarTodos(idTrabajador, pagina);
+                            calculadora = null;
+                        }
+                    });
+                }
+
+                @Override
+                public void onFailure(@NonNull Call<List<FichajeResponse>> call, @NonNull Throwable t) {
+                    callback.onFallo(t);
+                }
+            });
+        });
+    }
+
+    // Primera página por delta (solo hilo IO): lo nuevo del servidor mezclado con la primera página en caché.
+    private void revalidarPrimeraPaginaDelta(int idTrabajador, List<FichajeResponse> local, PaginaCallback callback) {
+        final int ultimoId = maxId(local);
+
+        LlamadaCompartida.de(api.obtenerHistorialDesde(ultimoId)).enqueue(new Callback<List<FichajeResponse>>() {
+            @Override
+            public void onResponse(@NonNull Call<List<FichajeResponse>> call, @NonNull Response<List<FichajeResponse>> response) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    callback.onErrorServidor(response.code());
+                    return;
+                }
+
+                List<FichajeResponse> nuevos = response.body();
+
+                if (ignoraDesde(nuevos, ultimoId)) {
+                    callback.onPagina(nuevos, false, false);
+                    IO.execute(() -> reemplazarCache(idTrabajador, nuevos));
+                    return;
+                }
+
+                IO.execute(() -> {
+                    List<FichajeResponse> mezcla = FichajeCache.mezclar(local, nuevos);
+                    boolean hayMas = mezcla.size() >= TAM_PAGINA_HISTORIAL;
+                    if (hayMas) mezcla = new ArrayList<>(mezcla.subList(0, TAM_PAGINA_HISTORIAL));
+                    callback.onPagina(mezcla, false, hayMas);
+
+                    if (nuevos.isEmpty()) return;
+                    cache.guardarTodos(idTrabajador, nuevos);
+                    if (calculadora != null) calculadora.agregarTodos(nuevos);
+                });
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<List<FichajeResponse>> call, @NonNull Throwable t) {
+                callback.onFallo(t);
+            }
+        });
+    }
+
+    /**
+     * Revalida el historial contra el servidor (llamar desde el hilo IO con lo leído de la caché).
+     * - Sin caché, o si toca sincronización completa: descarga todo y sustituye la caché.
+     * - Si no: pide solo los fichajes con id posterior al último conocido y los mezcla con lo local.
+     */
+    private void revalidarHistorial(int idTrabajador, List<FichajeResponse> local, HistorialCallback callback) {
+        boolean completa = local == null || local.isEmpty() || !cabeceraAlDia(idTrabajador);
+
+        if (completa) {
+            revalidarHistorialCompleto(idTrabajador, callback);
+        } else {
+            revalidarHistorialDelta(idTrabajador, local, callback);
+        }
+    }
+
+    // Descarga /mis-fichajes, lo entrega y sustituye la caché local del trabajador.
+    private void revalidarHistorialCompleto(int idTrabajador, HistorialCallback callback) {
+        LlamadaCompartida.de(api.obtenerHistorial()).enqueue(new Callback<List<FichajeResponse>>() {
+            @Override
+            public void onResponse(@NonNull Call<List<FichajeResponse>> call, @NonNull Response<List<FichajeResponse>> response) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    callback.onErrorServidor(response);
+                    return;
+                }
+
+                List<FichajeResponse> remoto = response.body();
+                callback.onDatos(remoto, false);
+                IO.execute(() -> reemplazarCache(idTrabajador, remoto));
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<List<FichajeResponse>> call, @NonNull Throwable t) {
+                callback.onFallo(t);
+            }
+        });
+    }
+
+    // Pide solo lo posterior al último id en caché; tras un fichaje confirmado suele ser nada o una fila.
+    private void revalidarHistorialDelta(int idTrabajador, List<FichajeResponse> local, HistorialCallback callback) {
+        final int ultimoId = maxId(local);
+
+        LlamadaCompartida.de(api.obtenerHistorialDesde(ultimoId)).enqueue(new Callback<List<FichajeResponse>>() {
+            @Override
+            public void onResponse(@NonNull Call<List<FichajeResponse>> call, @NonNull Response<List<FichajeResponse>> response) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    callback.onErrorServidor(response);
+                    return;
+                }
+
+                List<FichajeResponse> nuevos = response.body();
+
+                if (ignoraDesde(nuevos, ultimoId)) {
+                    callback.onDatos(nuevos, false);
+                    IO.execute(() -> reemplazarCache(idTrabajador, nuevos));
+                    return;
+                }
+
+                IO.execute(() -> {
+                    callback.onDatos(FichajeCache.mezclar(local, nuevos), false);
+                    if (nuevos.isEmpty()) return;
+                    cache.guardarTodos(idTrabajador, nuevos);
+                    if (calculadora != null) calculadora.agregarTodos(nuevos);
+                });
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<List<FichajeResponse>> call, @NonNull Throwable t) {
+                callback.onFallo(t);
+            }
+        });
+    }
+
+    // Solo hilo IO.
+    private void reemplazarCache(int idTrabajador, List<FichajeResponse> remoto) {
+        cache.reemplazar(idTrabajador, remoto);
+        marcarCabeceraAlDia(idTrabajador);
+        // El servidor puede haber borrado o corregido fichajes: se recalcula desde cero.
+        calculadora = null;
+    }
+
+    // Solo hilo IO. Pasado el intervalo se vuelve a descargar: el delta no ve borrados ni correcciones.
+    private static boolean cabeceraAlDia(int idTrabajador) {
+        return ultimaSyncCompletaTrabajador == idTrabajador
+                && System.currentTimeMillis() - ultimaSyncCompletaMs <= INTERVALO_SYNC_COMPLETA_MS;
+    }
+
+    // Solo hilo IO.
+    private static void marcarCabeceraAlDia(int idTrabajador) {
+        ultimaSyncCompletaMs = System.currentTimeMillis();
+        ultimaSyncCompletaTrabajador = idTrabajador;
+    }
+
+    private static int maxId(List<FichajeResponse> lista) {
+        int max = 0;
+        for (FichajeResponse f : lista) {
+            if (f.getId() > max) max = f.getId();
+        }
+        return max;
+    }
+
+    // Un backend que ignora after_id devuelve filas ya conocidas: es el historial entero.
+    private static boolean ignoraDesde(List<FichajeResponse> nuevos, int ultimoId) {
+        for (FichajeResponse f : nuevos) {
+            if (f.getId() <= ultimoId) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Estado de presencia con la llamada ligera /estado-fichaje.
+     * - Primero se entrega el estado local: último fichaje en caché más los pendientes de la cola.
+     * - Si el servidor no tiene el endpoint (404/405/501), se recuerda y se cae al historial completo.
+     * - Mientras queden pendientes en la cola, la respuesta del servidor no los ha visto: manda lo local.
+     */
+    public void consultarEstado(EstadoCallback callback) {
+        final int idTrabajador = sessionManager.getIdTrabajador();
+
+        IO.execute(() -> {
+            Boolean local = presenciaLocal(idTrabajador);
+            if (local != null) callback.onEstado(local, true);
+
+            consultarEstadoServidor(idTrabajador, new EstadoCallback() {
+                @Override
+                public void onEstado(boolean dentro, boolean desdeCache) {
+                    IO.execute(() -> callback.onEstado(presenciaConCola(idTrabajador, dentro), false));
+                }
+
+                @Override
+                public void onErrorServidor(int code) {
+                    callback.onErrorServidor(code);
+                }
+
+                @Override
+                public void onFallo(@NonNull Throwable t) {
+                    callback.onFallo(t);
+                }
+            });
+        });
+    }
+
+    /**
+     * Presencia deducida solo con lo que hay en el dispositivo (solo hilo IO): el último fichaje en caché
+     * y, encima, los pendientes de la cola, que el servidor alternará ENTRADA/SALIDA en orden de captura.
+     * null si no hay ni caché ni pendientes.
+     */
+    private Boolean presenciaLocal(int idTrabajador) {
+        FichajeResponse ultimo = null;
+        try {
+            ultimo = cache.leerUltimo(idTrabajador);
+        } catch (Exception ignored) {
+            // Sin caché legible cuentan solo los pendientes.
+        }
+
+        int pendientes = contarPendientes(idTrabajador);
+        if (ultimo == null && pendientes == 0) return null;
+
+        boolean dentro = ultimo != null && "ENTRADA".equalsIgnoreCase(ultimo.getTipo());
+        return pendientes % 2 == 0 ? dentro : !dentro;
+    }
+
+    // Estado del servidor salvo que aún haya fichajes en cola que no ha visto; entonces, el local (solo hilo IO).
+    private Boolean presenciaConCola(int idTrabajador, Boolean dentroServidor) {
+        if (contarPendientes(idTrabajador) == 0) return dentroServidor;
+        return presenciaLocal(idTrabajador);
+    }
+
+    // Solo hilo IO.
+    private int contarPendientes(int idTrabajador) {
+        try {
+            return outbox.listarPendientes(idTrabajador).size();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    // Parte remota de consultarEstado (solo hilo IO): /estado-fichaje o, si no existe, el historial.
+    private void consultarEstadoServidor(int idTrabajador, EstadoCallback callback) {
+        if (!estadoEndpointDisponible) {
+            revalidarHistorialParaEstado(idTrabajador, callback);
+            return;
+        }
+
+        LlamadaCompartida.de(api.getEstadoFichaje()).enqueue(new Callback<EstadoFichajeResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<EstadoFichajeResponse> call, @NonNull Response<EstadoFichajeResponse> response) {
+                int code = response.code();
+
+                if (code == 404 || code == 405 || code == 501) {
+                    estadoEndpointDisponible = false;
+                    IO.execute(() -> revalidarHistorialParaEstado(idTrabajador, callback));
+                    return;
+                }
+
+                if (response.isSuccessful() && response.body() != null) {
+                    callback.onEstado(response.body().isDentro(), false);
+                } else {
+                    callback.onErrorServidor(code);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<EstadoFichajeResponse> call, @NonNull Throwable t) {
+                callback.onFallo(t);
+            }
+        });
+    }
+
+    // Fallback para backends sin /estado-fichaje: revalida el historial, lo cachea y deduce el estado (solo hilo IO).
+    private void revalidarHistorialParaEstado(int idTrabajador, EstadoCallback callback) {
+        List<FichajeResponse> local = null;
+        try {
+            local = cache.leer(idTrabajador);
+        } catch (Exception ignored) {
+            // Sin caché legible se descarga todo.
+        }
+
+        revalidarHistorial(idTrabajador, local, new HistorialCallback() {
+            @Override
+            public void onDatos(@NonNull List<FichajeResponse> lista, boolean desdeCache) {
+                boolean dentro = !lista.isEmpty() && "ENTRADA".equalsIgnoreCase(lista.get(0).getTipo());
+                callback.onEstado(dentro, false);
+            }
+
+            @Override
+            public void onErrorServidor(@NonNull Response<List<FichajeResponse>> response) {
+                callback.onErrorServidor(response.code());
+            }
+
+            @Override
+            public void onFallo(@NonNull Throwable t) {
+                callback.onFallo(t);
+            }
+        });
     }
 
     // Pide el resumen de horas, opcionalmente filtrado por mes y año.
-    public void getResumen(String token, Integer mes, Integer anio, Callback<ResumenResponse> callback) {
-        api.getResumen(token, mes, anio).enqueue(callback);
+    public void getResumen(Integer mes, Integer anio, Callback<ResumenResponse> callback) {
+        LlamadaCompartida.de(api.getResumen(mes, anio)).enqueue(callback);
+    }
+
+    /**
+     * Registra el resumen del mes en curso devuelto por el servidor:
+     * - Guarda sus horas teóricas para futuros cálculos locales.
+     * - Contrasta las horas trabajadas con el cálculo local y deja traza si no cuadran.
+     */
+    public void registrarResumenServidor(ResumenResponse servidor) {
+        if (servidor == null) return;
+        final int idTrabajador = sessionManager.getIdTrabajador();
+
+        IO.execute(() -> {
+            Calendar hoy = Calendar.getInstance();
+            int anio = hoy.get(Calendar.YEAR);
+            int mes = hoy.get(Calendar.MONTH) + 1;
+
+            long anteriores = resumenPrefs.getTeoricas(idTrabajador, anio, mes);
+            resumenPrefs.guardarTeoricas(idTrabajador, anio, mes, servidor.getTeoricasSeg());
+            if (anteriores != servidor.getTeoricasSeg()) calculadora = null;
+
+            try {
+                CalculadoraResumen calc = calculadoraMesActual(idTrabajador);
+                if (calc == null) return;
+
+                long diferencia = Math.abs(calc.getTrabajadasSeg() - servidor.getTrabajadasSeg());
+                boolean mismaFiabilidad = calc.calcular(diaIso(hoy)).isCalculoConfiable() == servidor.isCalculoConfiable();
+                if (diferencia > MARGEN_CONTRASTE_SEG || !mismaFiabilidad) {
+                    Log.w(TAG, "Resumen local (" + calc.getTrabajadasSeg() + " s) no cuadra con el servidor ("
+                            + servidor.getTrabajadasSeg() + " s), confiable servidor=" + servidor.isCalculoConfiable());
+                }
+            } catch (Exception ignored) { }
+        });
+    }
+
+    // Devuelve la calculadora del mes actual, creándola desde la caché si hace falta (solo hilo IO).
+    private CalculadoraResumen calculadoraMesActual(int idTrabajador) {
+        Calendar hoy = Calendar.getInstance();
+        int anio = hoy.get(Calendar.YEAR);
+        int mes = hoy.get(Calendar.MONTH) + 1;
+
+        long teoricas = resumenPrefs.getTeoricas(idTrabajador, anio, mes);
+        if (teoricas < 0) return null;
+
+        if (calculadora == null || calculadora.getAnio() != anio || calculadora.getMes() != mes) {
+            CalculadoraResumen nueva = new CalculadoraResumen(anio, mes, teoricas);
+            nueva.agregarTodos(cache.leer(idTrabajador));
+            calculadora = nueva;
+        }
+        return calculadora;
+    }
+
+    // "YYYY-MM-DD" del día indicado, como lo espera CalculadoraResumen.calcular().
+    private static String diaIso(Calendar c) {
+        return String.format(Locale.US, "%04d-%02d-%02d",
+                c.get(Calendar.YEAR), c.get(Calendar.MONTH) + 1, c.get(Calendar.DAY_OF_MONTH));
     }
 
     // Consulta si hay un recordatorio pendiente para mostrar al usuario.
-    public void getRecordatorio(String token, Callback<RecordatorioResponse> callback) {
-        api.getRecordatorioFichaje(token).enqueue(callback);
+    public void getRecordatorio(Callback<RecordatorioResponse> callback) {
+        LlamadaCompartida.de(api.getRecordatorioFichaje()).enqueue(callback);
+    }
+
+    /**
+     * Todo lo que pinta la pantalla principal en una sola llamada (/dashboard).
+     * - Primero entrega el adelanto local (caché de fichajes más la cola pendiente, y cálculo del resumen).
+     * - Si el servidor no tiene el endpoint (404/405/501), se recuerda y se piden estado, resumen
+     *   y recordatorio a la vez; el resultado se entrega junto cuando han contestado los tres.
+     * - El resumen del servidor se registra para contrastarlo con el cálculo local, como en getResumen.
+     * - Con fichajes aún en cola, el estado del servidor no los incluye: se entrega el local (ver consultarEstado).
+     */
+    public void cargarDashboard(DashboardCallback destino) {
+        final int idTrabajador = sessionManager.getIdTrabajador();
+
+        final DashboardCallback callback = new DashboardCallback() {
+            @Override
+            public void onLocal(Boolean dentro, ResumenResponse resumen) {
+                destino.onLocal(dentro, resumen);
+            }
+
+            @Override
+            public void onServidor(Boolean dentro, ResumenResponse resumen, RecordatorioResponse recordatorio) {
+                IO.execute(() -> destino.onServidor(presenciaConCola(idTrabajador, dentro), resumen, recordatorio));
+            }
+
+            @Override
+            public void onFallo(@NonNull Throwable t) {
+                destino.onFallo(t);
+            }
+        };
+
+        IO.execute(() -> {
+            Boolean dentroLocal = presenciaLocal(idTrabajador);
+            ResumenResponse resumenLocal = null;
+            try {
+                // Solo hay cálculo local si ya se conocen las horas teóricas del mes (vienen del servidor).
+                CalculadoraResumen calc = calculadoraMesActual(idTrabajador);
+                if (calc != null) resumenLocal = calc.calcular(diaIso(Calendar.getInstance()));
+            } catch (Exception ignored) {
+                // El cálculo local es solo un adelanto; si falla se espera al servidor.
+            }
+            if (dentroLocal != null || resumenLocal != null) callback.onLocal(dentroLocal, resumenLocal);
+
+            if (!dashboardEndpointDisponible) {
+                cargarDashboardEnParalelo(idTrabajador, callback);
+                return;
+            }
+
+            LlamadaCompartida.de(api.getDashboard()).enqueue(new Callback<DashboardResponse>() {
+                @Override
+                public void onResponse(@NonNull Call<DashboardResponse> call, @NonNull Response<DashboardResponse> response) {
+                    int code = response.code();
+
+                    if (code == 404 || code == 405 || code == 501) {
+                        dashboardEndpointDisponible = false;
+                        IO.execute(() -> cargarDashboardEnParalelo(idTrabajador, callback));
+                        return;
+                    }
+
+                    DashboardResponse d = response.body();
+                    if (!response.isSuccessful() || d == null) {
+                        // Error puntual del agregado: se reintenta por partes sin darlo por inexistente.
+                        IO.execute(() -> cargarDashboardEnParalelo(idTrabajador, callback));
+                        return;
+                    }
+
+                    registrarResumenServidor(d.getResumen());
+                    callback.onServidor(d.getEstado() != null ? d.getEstado().isDentro() : null,
+                            d.getResumen(), d.getRecordatorio());
+                }
+
+                @Override
+                public void onFailure(@NonNull Call<DashboardResponse> call, @NonNull Throwable t) {
+                    callback.onFallo(t);
+                }
+            });
+        });
+    }
+
+    // Fallback sin /dashboard (solo hilo IO): las tres peticiones salen a la vez y la última en contestar entrega el conjunto.
+    private void cargarDashboardEnParalelo(int idTrabajador, DashboardCallback callback) {
+        final AtomicInteger pendientes = new AtomicInteger(3);
+        final AtomicReference<Boolean> dentro = new AtomicReference<>();
+        final AtomicReference<ResumenResponse> resumen = new AtomicReference<>();
+        final AtomicReference<RecordatorioResponse> recordatorio = new AtomicReference<>();
+        final AtomicReference<Throwable> fallo = new AtomicReference<>();
+
+        final Runnable parteTerminada = () -> {
+            if (pendientes.decrementAndGet() != 0) return;
+            if (dentro.get() == null && resumen.get() == null && fallo.get() != null) {
+                callback.onFallo(fallo.get());
+            } else {
+                callback.onServidor(dentro.get(), resumen.get(), recordatorio.get());
+            }
+        };
+
+        consultarEstadoServidor(idTrabajador, new EstadoCallback() {
+            @Override
+            public void onEstado(boolean d, boolean desdeCache) {
+                dentro.set(d);
+                parteTerminada.run();
+            }
+
+            @Override
+            public void onErrorServidor(int code) {
+                parteTerminada.run();
+            }
+
+            @Override
+            public void onFallo(@NonNull Throwable t) {
+                fallo.compareAndSet(null, t);
+                parteTerminada.run();
+            }
+        });
+
+        getResumen(null, null, new Callback<ResumenResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<ResumenResponse> call, @NonNull Response<ResumenResponse> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    resumen.set(response.body());
+                    registrarResumenServidor(response.body());
+                }
+                parteTerminada.run();
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<ResumenResponse> call, @NonNull Throwable t) {
+                fallo.compareAndSet(null, t);
+                parteTerminada.run();
+            }
+        });
+
+        getRecordatorio(new Callback<RecordatorioResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<RecordatorioResponse> call, @NonNull Response<RecordatorioResponse> response) {
+                // 204 = no hay nada que avisar.
+                if (response.code() != 204 && response.isSuccessful()) recordatorio.set(response.body());
+                parteTerminada.run();
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<RecordatorioResponse> call, @NonNull Throwable t) {
+                parteTerminada.run();
+            }
+        });
+    }
+
+    /**
+     * Registra un fichaje pasando primero por la cola local:
+     * - Se guarda en SQLite con su hora de captura y se confirma a la UI (onEncolado) sin esperar a la red.
+     * - Después se vacía la cola en orden de captura: si hay fichajes anteriores pendientes salen antes,
+     *   para que el servidor siga alternando ENTRADA/SALIDA en el orden real.
+     * - Si no se puede enviar, se queda en cola y el worker lo reenvía al volver la conexión.
+     *
+     * nfcData == null => fichaje manual por GPS (/fichar); en otro caso => /fichar-nfc.
+     */
+    public void fichar(double lat, double lon, String nfcData, FichajeCallback callback) {
+        final int idTrabajador = sessionManager.getIdTrabajador();
+        final long capturadoEn = System.currentTimeMillis();
+
+        final String idempotencyKey = UUID.randomUUID().toString();
+
+        IO.execute(() -> {
+            long idLocal;
+            try {
+                idLocal = outbox.encolar(idTrabajador, capturadoEn, lat, lon, nfcData, idempotencyKey);
+            } catch (Exception e) {
+                idLocal = -1;
+            }
+
+            if (idLocal < 0) {
+                enviarSinCola(new FichajePendiente(
+                        idLocal, idTrabajador, capturadoEn, lat, lon, nfcData, idempotencyKey), callback);
+                return;
+            }
+
+            callback.onEncolado();
+
+            final long id = idLocal;
+            ENVIO.execute(() -> {
+                final boolean[] respondido = {false};
+
+                ResultadoCola resultado = vaciarCola(idTrabajador, (p, response) -> {
+                    if (p.getIdLocal() == id) {
+                        respondido[0] = true;
+                        callback.onRespuesta(response);
+                    } else if (!response.isSuccessful()) {
+                        TrabajadorFichajesPendientes.avisarRechazo(appContext, response.code());
+                    }
+                });
+
+                if (!respondido[0]) {
+                    if (resultado != ResultadoCola.VACIA) TrabajadorFichajesPendientesScheduler.programar(appContext);
+                    callback.onGuardadoSinConexion();
+                }
+            });
+        });
+    }
+
+    // Solo si la cola local no se pudo escribir: se intenta directamente y la UI espera a la respuesta.
+    private void enviarSinCola(FichajePendiente p, FichajeCallback callback) {
+        crearLlamadaEnvio(p).enqueue(new Callback<FichajeResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<FichajeResponse> call, @NonNull Response<FichajeResponse> response) {
+                FichajeResponse confirmado = response.body();
+                if (response.isSuccessful() && confirmado != null) guardarConfirmado(p.getIdTrabajador(), confirmado);
+                callback.onRespuesta(response);
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<FichajeResponse> call, @NonNull Throwable t) {
+                callback.onError(t);
+            }
+        });
+    }
+
+    /**
+     * Envía los pendientes del trabajador en orden de captura, de forma síncrona (nunca en el hilo principal).
+     * La usan fichar() y el worker; el candado evita que los dos envíen a la vez y cada fila se reclama
+     * en SQLite antes de mandarla, así que ningún pendiente sale dos veces.
+     * Se para en el primero que no se puede enviar: los posteriores no pueden adelantarlo.
+     */
+    public ResultadoCola vaciarCola(int idTrabajador, EnvioPendienteListener listener) {
+        synchronized (LOCK_COLA) {
+            for (FichajePendiente p : outbox.listarPendientes(idTrabajador)) {
+                long id = p.getIdLocal();
+                if (!outbox.reclamar(id)) return ResultadoCola.REINTENTAR;
+
+                Response<FichajeResponse> response;
+                try {
+                    response = crearLlamadaEnvio(p).execute();
+                } catch (Exception e) {
+                    outbox.marcarIntento(id);
+                    return ResultadoCola.REINTENTAR;
+                }
+
+                int code = response.code();
+
+                // 401: se conserva para enviarlo cuando el usuario vuelva a entrar.
+                if (code == 401) {
+                    outbox.liberar(id);
+                    return ResultadoCola.SIN_SESION;
+                }
+
+                // 5xx, 408 (timeout) o 429 (demasiadas peticiones): el servidor no lo ha procesado.
+                if (code >= 500 || code == 408 || code == 429) {
+                    outbox.marcarIntento(id);
+                    return ResultadoCola.REINTENTAR;
+                }
+
+                // El fichaje confirmado entra en la caché antes de salir de la cola: así la presencia local
+                // (caché + cola) no deja de verlo en ningún momento, y el historial lo muestra sin esperar.
+                FichajeResponse confirmado = response.body();
+                if (response.isSuccessful() && confirmado != null) guardarConfirmado(idTrabajador, confirmado);
+
+                // 2xx aceptado o 4xx de negocio (rechazo definitivo): el servidor ya lo ha procesado.
+                outbox.eliminar(id);
+
+                listener.onProcesado(p, response);
+            }
+            return ResultadoCola.VACIA;
+        }
     }
 
-    // Lanza un fichaje estándar con GPS.
-    public void fichar(String token, FichajeRequest request, Callback<FichajeResponse> callback) {
-        api.fichar(token, request).enqueue(callback);
+    // Escribe en el momento (fuera del hilo principal); la calculadora solo se toca desde IO.
+    private void guardarConfirmado(int idTrabajador, FichajeResponse confirmado) {
+        try {
+            cache.guardar(idTrabajador, confirmado);
+        } catch (Exception ignored) {
+            // La caché se pondrá al día con la siguiente revalidación.
+        }
+        IO.execute(() -> {
+            if (calculadora != null) calculadora.agregar(confirmado);
+        });
     }
 
-    // Lanza un fichaje validando NFC + ubicación con el endpoint dedicado.
-    public void ficharPorNfc(String token, double lat, double lon, String nfcData, Callback<FichajeResponse> callback) {
-        NfcFichajeRequest request = new NfcFichajeRequest(nfcData, lat, lon);
-        api.ficharNfc(token, request).enqueue(callback);
+    // Construye la llamada de envío de un fichaje (la usa también el worker al vaciar la cola).
+    // Siempre con la misma clave de idempotencia del fichaje, para que ningún reenvío lo duplique.
+    public Call<FichajeResponse> crearLlamadaEnvio(FichajePendiente p) {
+        String capturadoEn = p.getCapturadoEnIso();
+        String key = p.getIdempotencyKey();
+        if (p.esNfc()) {
+            NfcFichajeRequest request = new NfcFichajeRequest(p.getNfcData(), p.getLatitud(), p.getLongitud(), capturadoEn, key);
+            return api.ficharNfc(key, request);
+        }
+        FichajeRequest request = new FichajeRequest(p.getLatitud(), p.getLongitud(), null, capturadoEn, key);
+        return api.fichar(key, request);
     }
 
     // Envía el cambio de contraseña para el usuario autenticado.
-    public void changePassword(String token, ChangePasswordRequest request, Callback<Void> callback) {
-        api.changePassword(token, request).enqueue(callback);
+    public void changePassword(ChangePasswordRequest request, Callback<Void> callback) {
+        api.changePassword(request).enqueue(callback);
     }
 }
@@ -0,0 +1,198 @@
+package com.example.trabajoapi.data.resumen;
+
+import com.example.trabajoapi.data.FichajeResponse;
+import com.example.trabajoapi.data.ResumenResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Cálculo en el dispositivo del resumen mensual, con la misma forma que /api/resumen.
+ *
+ * Reglas (las mismas que aplica el backend):
+ * - Cada día se ordena por hora y se emparejan ENTRADA -> SALIDA; cada par suma su duración.
+ * - Un día es incompleto si tiene una SALIDA sin ENTRADA previa, dos ENTRADA seguidas
+ *   o termina con una ENTRADA abierta.
+ * - Excepción: la ENTRADA abierta del día en curso es una jornada en marcha, no un error.
+ *   Por eso el día actual se pasa a calcular(): la misma calculadora sirve aunque cambie el día.
+ *
+ * Es incremental: agregar un fichaje solo recalcula su día y ajusta los totales.
+ * Las horas teóricas no se pueden deducir en local, así que se reciben del último resumen del servidor.
+ * Clase Java pura (sin Android) para poder probarla en la JVM.
+ */
+public class CalculadoraResumen {
+
+    private final int anio;
+    private final int mes;
+    private final long teoricasSeg;
+    private final String prefijoMes;
+
+    // Fichajes del mes agrupados por día "YYYY-MM-DD"; cada día ordenado por segundo del día.
+    private final Map<String, TreeSet<Marca>> marcasPorDia = new HashMap<>();
+    private final Map<String, Long> segundosPorDia = new HashMap<>();
+    private final Set<String> diasIncompletos = new HashSet<>();
+    // Días que terminan con una ENTRADA abierta: son incompletos salvo que sean hoy.
+    private final Set<String> diasAbiertos = new HashSet<>();
+    private final Set<Integer> idsVistos = new HashSet<>();
+
+    private long trabajadasSeg = 0;
+
+    /**
+     * @param anio        año del periodo (p. ej. 2026)
+     * @param mes         mes del periodo, 1-12
+     * @param teoricasSeg segundos teóricos del periodo según el backend
+     */
+    public CalculadoraResumen(int anio, int mes, long teoricasSeg) {
+        this.anio = anio;
+        this.mes = mes;
+        this.teoricasSeg = teoricasSeg;
+        this.prefijoMes = String.format(Locale.US, "%04d-%02d-", anio, mes);
+    }
+
+    public int getAnio() { return anio; }
+    public int getMes() { return mes; }
+
+    // Añade varios fichajes; devuelve true si alguno ha cambiado el resultado.
+    public boolean agregarTodos(List<FichajeResponse> fichajes) {
+        boolean cambio = false;
+        if (fichajes == null) return false;
+        for (FichajeResponse f : fichajes) {
+            if (agregar(f)) cambio = true;
+        }
+        return cambio;
+    }
+
+    /**
+     * Añade un fichaje y recalcula solo su día.
+     * Ignora fichajes de otros meses, sin fecha legible o ya vistos (mismo id).
+     * La hora puede venir con o sin segundos ("HH:mm" cuenta como "HH:mm:00").
+     */
+    public boolean agregar(FichajeResponse f) {
+        if (f == null || f.getFechaHora() == null) return false;
+
+        String fecha = f.getFechaHora();
+        if (!fecha.startsWith(prefijoMes)) return false;
+
+        int segundoDelDia = segundoDelDia(fecha);
+        if (segundoDelDia < 0) return false;
+        if (!idsVistos.add(f.getId())) return false;
+
+        String dia = fecha.substring(0, 10);
+        TreeSet<Marca> marcas = marcasPorDia.get(dia);
+        if (marcas == null) {
+            marcas = new TreeSet<>();
+            marcasPorDia.put(dia, marcas);
+        }
+        marcas.add(new Marca(segundoDelDia, f.getId(), "ENTRADA".equalsIgnoreCase(f.getTipo())));
+
+        recalcularDia(dia, marcas);
+        return true;
+    }
+
+    /**
+     * Devuelve el resumen acumulado hasta ahora.
+     *
+     * @param hoy día actual "YYYY-MM-DD"; su ENTRADA abierta es la jornada en curso y no cuenta como incompleta
+     */
+    public ResumenResponse calcular(String hoy) {
+        TreeSet<String> dias = new TreeSet<>(diasIncompletos);
+        for (String dia : diasAbiertos) {
+            if (!dia.equals(hoy)) dias.add(dia);
+        }
+        List<String> incompletos = new ArrayList<>(dias);
+        String etiquetaMes = String.format(Locale.US, "%02d/%04d", mes, anio);
+        return new ResumenResponse(etiquetaMes, teoricasSeg, trabajadasSeg, incompletos);
+    }
+
+    // Segundos trabajados acumulados (atajo para comparar con el valor del servidor).
+    public long getTrabajadasSeg() {
+        return trabajadasSeg;
+    }
+
+    // Empareja ENTRADA/SALIDA del día y actualiza totales restando el valor anterior del día.
+    private void recalcularDia(String dia, TreeSet<Marca> marcas) {
+        long total = 0;
+        boolean incompleto = false;
+        Marca entradaAbierta = null;
+
+        for (Marca m : marcas) {
+            if (m.entrada) {
+                if (entradaAbierta != null) incompleto = true;
+                entradaAbierta = m;
+            } else {
+                if (entradaAbierta == null) {
+                    incompleto = true;
+                } else {
+                    total += m.segundo - entradaAbierta.segundo;
+                    entradaAbierta = null;
+                }
+            }
+        }
+
+        Long anterior = segundosPorDia.put(dia, total);
+        trabajadasSeg += total - (anterior != null ? anterior : 0L);
+
+        if (incompleto) diasIncompletos.add(dia);
+        else diasIncompletos.remove(dia);
+
+        if (entradaAbierta != null) diasAbiertos.add(dia);
+        else diasAbiertos.remove(dia);
+    }
+
+    // Segundo del día de "YYYY-MM-DDTHH:mm[:ss]..." tal cual viene, sin zona horaria; -1 si no se entiende.
+    // Se llama una vez por fichaje, así que es aritmética sobre los caracteres, sin crear objetos.
+    private static int segundoDelDia(String fechaIso) {
+        if (fechaIso.length() < 16) return -1;
+        char sep = fechaIso.charAt(10);
+        if ((sep != 'T' && sep != ' ') || fechaIso.charAt(13) != ':') return -1;
+
+        int hora = dosCifras(fechaIso, 11);
+        int minuto = dosCifras(fechaIso, 14);
+        int segundo = 0;
+        if (fechaIso.length() > 16 && fechaIso.charAt(16) == ':') {
+            if (fechaIso.length() < 19) return -1;
+            segundo = dosCifras(fechaIso, 17);
+        }
+        if (hora < 0 || hora > 23 || minuto < 0 || minuto > 59 || segundo < 0 || segundo > 59) return -1;
+        return (hora * 60 + minuto) * 60 + segundo;
+    }
+
+    // Número de dos cifras que empieza en desde, o -1 si no son dígitos.
+    private static int dosCifras(String s, int desde) {
+        char a = s.charAt(desde);
+        char b = s.charAt(desde + 1);
+        if (a < '0' || a > '9' || b < '0' || b > '9') return -1;
+        return (a - '0') * 10 + (b - '0');
+    }
+
+    // Agrupa por días ya ordenados (útil para mostrar el detalle por jornada).
+    public Map<String, Long> getSegundosPorDia() {
+        return new TreeMap<>(segundosPorDia);
+    }
+
+    // Marca horaria de un fichaje dentro de su día; ordena por segundo y, a igualdad, por id.
+    private static final class Marca implements Comparable<Marca> {
+        final int segundo;
+        final int id;
+        final boolean entrada;
+
+        Marca(int segundo, int id, boolean entrada) {
+            this.segundo = segundo;
+            this.id = id;
+            this.entrada = entrada;
+        }
+
+        @Override
+        public int compareTo(Marca o) {
+            if (segundo != o.segundo) return segundo < o.segundo ? -1 : 1;
+            return Integer.compare(id, o.id);
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.trabajoapi.ui.admin.empleados;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.trabajoapi.data.FichajeResponse;
 import com.example.trabajoapi.data.TrabajadorResponse;
+import com.example.trabajoapi.data.TokenHolder;
+import com.example.trabajoapi.data.busqueda.IndiceEmpleados;
 import com.example.trabajoapi.data.common.Event;
 import com.example.trabajoapi.data.repository.AdminRepository;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -31,13 +39,22 @@ public class AdminEmpleadosViewModel extends ViewModel {
         public List<FichajeResponse> getFichajes() { return fichajes; }
     }
 
+    // Construcción del índice de búsqueda, fuera del hilo principal.
+    private static final ExecutorService INDEXADO = Executors.newSingleThreadExecutor();
+
     private final AdminRepository repo;
 
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
+    // Empleados visibles: la lista completa o el resultado de la búsqueda en curso.
     private final MutableLiveData<List<TrabajadorResponse>> empleados = new MutableLiveData<>(Collections.emptyList());
 
+    // Índice de la última lista cargada y texto buscado; solo se tocan desde el hilo principal.
+    private IndiceEmpleados indice;
+    private String consulta = "";
+    private final Handler principal = new Handler(Looper.getMainLooper());
+
     private final MutableLiveData<Event<String>> toastEvent = new MutableLiveData<>();
-    private final MutableLiveData<Event<Boolean>> goLoginEvent = new MutableLiveData<>();
+    private final MediatorLiveData<Event<Boolean>> goLoginEvent = new MediatorLiveData<>();
 
     private final MutableLiveData<Event<EmpleadoFichajesUI>> fichajesEmpleadoEvent = new MutableLiveData<>();
 
@@ -46,6 +63,13 @@ public class AdminEmpleadosViewModel extends ViewModel {
 
     public AdminEmpleadosViewModel(AdminRepository repo) {
         this.repo = repo;
+
+        // Sesión caducada centralizada: el 401 lo detecta AuthInterceptor.
+        goLoginEvent.addSource(TokenHolder.getSesionCaducada(), e -> {
+            if (e == null) return;
+            toastEvent.setValue(new Event<>("Sesión caducada"));
+            goLoginEvent.setValue(e);
+        });
     }
 
     public LiveData<Boolean> getLoading() { return loading; }
@@ -54,29 +78,51 @@ public class AdminEmpleadosViewModel extends ViewModel {
     public LiveData<Event<Boolean>> getGoLoginEvent() { return goLoginEvent; }
     public LiveData<Event<EmpleadoFichajesUI>> getFichajesEmpleadoEvent() { return fichajesEmpleadoEvent; }
 
-    // Carga la lista de empleados y la publica para que la pantalla la pinte.
-    public void cargarEmpleados(String bearer) {
-        if (bearer == null || bearer.trim().isEmpty()) return;
+    // Filtra la lista visible mientras se escribe. Con plantillas enormes una búsqueda puede rozar
+    // el frame, así que corre en el hilo del índice y solo se publica el resultado de la última consulta.
+    public void buscar(String texto) {
+        consulta = texto != null ? texto : "";
+        IndiceEmpleados actual = indice;
+        if (actual == null) return;
+
+        final String miConsulta = consulta;
+        INDEXADO.execute(() -> {
+            List<TrabajadorResponse> resultado = actual.buscar(miConsulta);
+            principal.post(() -> {
+                if (indice == actual && miConsulta.equals(consulta)) empleados.setValue(resultado);
+            });
+        });
+    }
 
+    // Construye el índice en segundo plano y publica la lista aplicando la búsqueda que haya escrita.
+    private void indexar(List<TrabajadorResponse> data) {
+        INDEXADO.execute(() -> {
+            IndiceEmpleados nuevo = IndiceEmpleados.construir(data);
+            principal.post(() -> {
+                indice = nuevo;
+                empleados.setValue(nuevo.buscar(consulta));
+            });
+        });
+    }
+
+    // Carga la lista de empleados y la publica para que la pantalla la pinte.
+    public void cargarEmpleados() {
         loading.setValue(true);
 
         if (empleadosCall != null) empleadosCall.cancel();
-        empleadosCall = repo.getEmpleados(bearer);
+        empleadosCall = repo.getEmpleados();
 
         empleadosCall.enqueue(new Callback<List<TrabajadorResponse>>() {
             @Override
             public void onResponse(Call<List<TrabajadorResponse>> call, Response<List<TrabajadorResponse>> response) {
                 loading.postValue(false);
 
-                if (response.code() == 401) {
-                    toastEvent.postValue(new Event<>("Sesión caducada"));
-                    goLoginEvent.postValue(new Event<>(true));
-                    return;
-                }
+                // 401: AuthInterceptor ya ha cerrado la sesión y avisado por goLoginEvent.
+                if (response.code() == 401) return;
 
                 if (response.isSuccessful() && response.body() != null) {
                     List<TrabajadorResponse> data = response.body();
-                    empleados.postValue(data);
+                    indexar(data);
 
                     if (data.isEmpty()) {
                         toastEvent.postValue(new Event<>("La lista está vacía"));
@@ -96,24 +142,19 @@ public class AdminEmpleadosViewModel extends ViewModel {
     }
 
     // Pide los fichajes de un empleado y emite un evento preparado para mostrar en UI.
-    public void cargarFichajesEmpleado(String bearer, int idEmpleado, String nombreEmpleado) {
-        if (bearer == null || bearer.trim().isEmpty()) return;
-
+    public void cargarFichajesEmpleado(int idEmpleado, String nombreEmpleado) {
         loading.setValue(true);
 
         if (fichajesCall != null) fichajesCall.cancel();
-        fichajesCall = repo.getFichajesEmpleado(bearer, idEmpleado);
+        fichajesCall = repo.getFichajesEmpleado(idEmpleado);
 
         fichajesCall.enqueue(new Callback<List<FichajeResponse>>() {
             @Override
             public void onResponse(Call<List<FichajeResponse>> call, Response<List<FichajeResponse>> response) {
                 loading.postValue(false);
 
-                if (response.code() == 401) {
-                    toastEvent.postValue(new Event<>("Sesión caducada"));
-                    goLoginEvent.postValue(new Event<>(true));
-                    return;
-                }
+                // 401: AuthInterceptor ya ha cerrado la sesión y avisado por goLoginEvent.
+                if (response.code() == 401) return;
 
                 if (response.isSuccessful() && response.body() != null) {
                     List<FichajeResponse> data = response.body();
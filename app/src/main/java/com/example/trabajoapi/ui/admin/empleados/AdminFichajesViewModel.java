@@ -1,19 +1,25 @@
 package com.example.trabajoapi.ui.admin.empleados;
 
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.trabajoapi.data.FichajeResponse;
+import com.example.trabajoapi.data.TokenHolder;
 import com.example.trabajoapi.data.common.Event;
 import com.example.trabajoapi.data.repository.AdminRepository;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 public class AdminFichajesViewModel extends ViewModel {
 
@@ -22,12 +28,30 @@ public class AdminFichajesViewModel extends ViewModel {
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<List<FichajeResponse>> fichajes = new MutableLiveData<>(Collections.emptyList());
     private final MutableLiveData<Event<String>> toastEvent = new MutableLiveData<>();
-    private final MutableLiveData<Event<Boolean>> goLoginEvent = new MutableLiveData<>();
+    private final MediatorLiveData<Event<Boolean>> goLoginEvent = new MediatorLiveData<>();
+
+    private final Handler principal = new Handler(Looper.getMainLooper());
+
+    private Call<ResponseBody> call;
 
-    private Call<List<FichajeResponse>> call;
+    // Estado de la paginación; solo se toca desde el hilo principal.
+    private final List<FichajeResponse> acumulado = new ArrayList<>();
+    private int idEmpleado = -1;
+    private boolean hayMas = false;
+    private boolean cargandoPagina = false;
+
+    // Identifica la carga en curso: los bloques de una carga ya sustituida se descartan.
+    private int generacion = 0;
 
     public AdminFichajesViewModel(AdminRepository repo) {
         this.repo = repo;
+
+        // Sesión caducada centralizada: el 401 lo detecta AuthInterceptor.
+        goLoginEvent.addSource(TokenHolder.getSesionCaducada(), e -> {
+            if (e == null) return;
+            toastEvent.setValue(new Event<>("Sesión caducada"));
+            goLoginEvent.setValue(e);
+        });
     }
 
     public LiveData<Boolean> getLoading() { return loading; }
@@ -35,49 +59,99 @@ public class AdminFichajesViewModel extends ViewModel {
     public LiveData<Event<String>> getToastEvent() { return toastEvent; }
     public LiveData<Event<Boolean>> getGoLoginEvent() { return goLoginEvent; }
 
-    // Pide el historial de un empleado y publica lista, mensajes y estado de sesión.
-    public void cargarHistorial(String token, int idEmpleado) {
-        if (token == null) return;
-
+    /**
+     * Pide la primera página del historial de un empleado y la va publicando por bloques:
+     * la lista se muestra con el primer bloque y crece mientras sigue llegando el resto.
+     */
+    public void cargarHistorial(int idEmpleado) {
+        this.idEmpleado = idEmpleado;
+        generacion++;
+        acumulado.clear();
+        hayMas = false;
         loading.setValue(true);
+        pedirPagina(null);
+    }
+
+    // Pide la siguiente página si la hay y no hay otra en curso (la llama el scroll de la lista).
+    public void cargarMas() {
+        if (!hayMas || cargandoPagina || acumulado.isEmpty()) return;
+        pedirPagina(acumulado.get(acumulado.size() - 1).getId());
+    }
 
+    private void pedirPagina(Integer antesDeId) {
         if (call != null) call.cancel();
-        call = repo.getFichajesDeEmpleado(token, idEmpleado);
+        cargandoPagina = true;
+        final int miGeneracion = generacion;
+        final int[] recibidos = {0};
 
-        call.enqueue(new Callback<List<FichajeResponse>>() {
+        call = repo.getFichajesDeEmpleadoPorBloques(idEmpleado, antesDeId, new AdminRepository.BloquesCallback<FichajeResponse>() {
             @Override
-            public void onResponse(Call<List<FichajeResponse>> call, Response<List<FichajeResponse>> response) {
-                loading.postValue(false);
-
-                if (response.code() == 401) {
-                    toastEvent.postValue(new Event<>("Sesión caducada"));
-                    goLoginEvent.postValue(new Event<>(true));
-                    return;
-                }
-
-                if (response.isSuccessful() && response.body() != null) {
-                    fichajes.postValue(response.body());
-                    if (response.body().isEmpty()) {
-                        toastEvent.postValue(new Event<>("Este empleado no tiene fichajes."));
+            public void onBloque(@NonNull List<FichajeResponse> bloque) {
+                enPrincipal(miGeneracion, () -> {
+                    int antes = acumulado.size();
+                    if (antesDeId == null) {
+                        acumulado.addAll(bloque);
+                    } else {
+                        // Un servidor que ignore el cursor repetiría filas: solo se aceptan las más antiguas.
+                        for (FichajeResponse f : bloque) {
+                            if (f.getId() < antesDeId) acumulado.add(f);
+                        }
                     }
-                } else {
-                    toastEvent.postValue(new Event<>("Error servidor: " + response.code()));
-                }
+                    recibidos[0] += acumulado.size() - antes;
+                    fichajes.setValue(new ArrayList<>(acumulado));
+                    loading.setValue(false);
+                });
             }
 
             @Override
-            public void onFailure(Call<List<FichajeResponse>> call, Throwable t) {
-                if (call.isCanceled()) return;
-                loading.postValue(false);
-                toastEvent.postValue(new Event<>("Error de red: " + t.getMessage()));
+            public void onFin(int total) {
+                enPrincipal(miGeneracion, () -> {
+                    loading.setValue(false);
+                    cargandoPagina = false;
+                    hayMas = total == AdminRepository.TAM_PAGINA && recibidos[0] > 0;
+                    if (acumulado.isEmpty()) {
+                        fichajes.setValue(Collections.emptyList());
+                        toastEvent.setValue(new Event<>("Este empleado no tiene fichajes."));
+                    }
+                });
+            }
+
+            @Override
+            public void onErrorServidor(int code) {
+                enPrincipal(miGeneracion, () -> {
+                    loading.setValue(false);
+                    cargandoPagina = false;
+
+                    // 401: AuthInterceptor ya ha cerrado la sesión y avisado por goLoginEvent.
+                    if (code == 401) return;
+                    toastEvent.setValue(new Event<>("Error servidor: " + code));
+                });
+            }
+
+            @Override
+            public void onFallo(@NonNull Throwable t) {
+                enPrincipal(miGeneracion, () -> {
+                    loading.setValue(false);
+                    cargandoPagina = false;
+                    // Lo que ya se haya mostrado se queda en pantalla; el scroll puede reintentar la página.
+                    toastEvent.setValue(new Event<>("Error de red: " + t.getMessage()));
+                });
             }
         });
     }
 
+    // Los bloques llegan desde el hilo de lectura: se aplican en el principal, descartando los de una carga anterior.
+    private void enPrincipal(int miGeneracion, Runnable r) {
+        principal.post(() -> {
+            if (miGeneracion == generacion) r.run();
+        });
+    }
+
     // Limpia llamadas activas cuando el VM se destruye.
     @Override
     protected void onCleared() {
         super.onCleared();
+        generacion++;
         if (call != null) call.cancel();
     }
 }
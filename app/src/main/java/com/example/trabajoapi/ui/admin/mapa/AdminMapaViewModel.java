@@ -1,10 +1,12 @@
 package com.example.trabajoapi.ui.admin.mapa;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.trabajoapi.data.EmpresaConfigResponse;
+import com.example.trabajoapi.data.TokenHolder;
 import com.example.trabajoapi.data.common.Event;
 import com.example.trabajoapi.data.repository.AdminRepository;
 
@@ -20,7 +22,7 @@ public class AdminMapaViewModel extends ViewModel {
     private final MutableLiveData<EmpresaConfigResponse> config = new MutableLiveData<>();
 
     private final MutableLiveData<Event<String>> toastEvent = new MutableLiveData<>();
-    private final MutableLiveData<Event<Boolean>> goLoginEvent = new MutableLiveData<>();
+    private final MediatorLiveData<Event<Boolean>> goLoginEvent = new MediatorLiveData<>();
     private final MutableLiveData<Event<Boolean>> savedEvent = new MutableLiveData<>();
 
     private Call<EmpresaConfigResponse> getConfigCall;
@@ -28,6 +30,13 @@ public class AdminMapaViewModel extends ViewModel {
 
     public AdminMapaViewModel(AdminRepository repo) {
         this.repo = repo;
+
+        // Sesión caducada centralizada: el 401 lo detecta AuthInterceptor.
+        goLoginEvent.addSource(TokenHolder.getSesionCaducada(), e -> {
+            if (e == null) return;
+            toastEvent.setValue(new Event<>("Sesión caducada"));
+            goLoginEvent.setValue(e);
+        });
     }
 
     public LiveData<Boolean> getLoading() { return loading; }
@@ -37,24 +46,19 @@ public class AdminMapaViewModel extends ViewModel {
     public LiveData<Event<Boolean>> getSavedEvent() { return savedEvent; }
 
     // Pide al backend la configuración de empresa y la publica para que la UI la pinte.
-    public void cargarConfiguracion(String bearer) {
-        if (bearer == null || bearer.trim().isEmpty()) return;
-
+    public void cargarConfiguracion() {
         loading.setValue(true);
 
         if (getConfigCall != null) getConfigCall.cancel();
-        getConfigCall = repo.getEmpresaConfig(bearer);
+        getConfigCall = repo.getEmpresaConfig();
 
         getConfigCall.enqueue(new Callback<EmpresaConfigResponse>() {
             @Override
             public void onResponse(Call<EmpresaConfigResponse> call, Response<EmpresaConfigResponse> response) {
                 loading.postValue(false);
 
-                if (response.code() == 401) {
-                    toastEvent.postValue(new Event<>("Sesión caducada"));
-                    goLoginEvent.postValue(new Event<>(true));
-                    return;
-                }
+                // 401: AuthInterceptor ya ha cerrado la sesión y avisado por goLoginEvent.
+                if (response.code() == 401) return;
 
                 if (response.isSuccessful() && response.body() != null) {
                     config.postValue(response.body());
@@ -73,9 +77,7 @@ public class AdminMapaViewModel extends ViewModel {
     }
 
     // Envía una nueva ubicación/radio y notifica a la UI si se guardó correctamente.
-    public void guardarConfiguracion(String bearer, double lat, double lon, int radio) {
-        if (bearer == null || bearer.trim().isEmpty()) return;
-
+    public void guardarConfiguracion(double lat, double lon, int radio) {
         loading.setValue(true);
 
         EmpresaConfigResponse body = new EmpresaConfigResponse();
@@ -84,18 +86,15 @@ public class AdminMapaViewModel extends ViewModel {
         body.setRadio(radio);
 
         if (updateConfigCall != null) updateConfigCall.cancel();
-        updateConfigCall = repo.updateEmpresaConfig(bearer, body);
+        updateConfigCall = repo.updateEmpresaConfig(body);
 
         updateConfigCall.enqueue(new Callback<Void>() {
             @Override
             public void onResponse(Call<Void> call, Response<Void> response) {
                 loading.postValue(false);
 
-                if (response.code() == 401) {
-                    toastEvent.postValue(new Event<>("Sesión caducada"));
-                    goLoginEvent.postValue(new Event<>(true));
-                    return;
-                }
+                // 401: AuthInterceptor ya ha cerrado la sesión y avisado por goLoginEvent.
+                if (response.code() == 401) return;
 
                 if (response.isSuccessful()) {
                     toastEvent.postValue(new Event<>("¡Configuración Guardada!"));
@@ -1,15 +1,20 @@
 package com.example.trabajoapi.ui.incidencia;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.trabajoapi.data.IncidenciaRequest;
 import com.example.trabajoapi.data.IncidenciaResponse;
+import com.example.trabajoapi.data.TokenHolder;
 import com.example.trabajoapi.data.common.Event;
 import com.example.trabajoapi.data.repository.IncidenciaRepository;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -20,26 +25,37 @@ public class IncidenciaViewModel extends ViewModel {
     private final IncidenciaRepository repo;
 
     private final MutableLiveData<Event<String>> toastEvent = new MutableLiveData<>();
-    private final MutableLiveData<Event<List<IncidenciaResponse>>> historialEvent = new MutableLiveData<>();
-    private final MutableLiveData<Event<Boolean>> logoutEvent = new MutableLiveData<>();
+    private final MutableLiveData<List<IncidenciaResponse>> historial = new MutableLiveData<>(Collections.emptyList());
+    private final MutableLiveData<Boolean> cargandoHistorial = new MutableLiveData<>(false);
+    private final MediatorLiveData<Event<Boolean>> logoutEvent = new MediatorLiveData<>();
 
     private Call<Void> crearCall;
     private Call<List<IncidenciaResponse>> histCall;
 
+    // Paginación del historial; Retrofit entrega en el hilo principal, así que solo se toca desde ahí.
+    private final List<IncidenciaResponse> acumulado = new ArrayList<>();
+    private boolean hayMas = false;
+    private boolean cargandoPagina = false;
+    private int generacion = 0;
+
     public IncidenciaViewModel(IncidenciaRepository repo) {
         this.repo = repo;
+
+        // Sesión caducada centralizada (AuthInterceptor); el aviso lo muestra MainViewModel.
+        logoutEvent.addSource(TokenHolder.getSesionCaducada(), e -> {
+            if (e != null) logoutEvent.setValue(e);
+        });
     }
 
     public LiveData<Event<String>> getToastEvent() { return toastEvent; }
-    public LiveData<Event<List<IncidenciaResponse>>> getHistorialEvent() { return historialEvent; }
+    public LiveData<List<IncidenciaResponse>> getHistorial() { return historial; }
+    public LiveData<Boolean> getCargandoHistorial() { return cargandoHistorial; }
     public LiveData<Event<Boolean>> getLogoutEvent() { return logoutEvent; }
 
     // Envía una incidencia y devuelve un mensaje de confirmación o un error entendible.
-    public void crearIncidencia(String bearer, String tipo, String inicio, String fin, String comentario) {
-        if (bearer == null || bearer.trim().isEmpty()) return;
-
+    public void crearIncidencia(String tipo, String inicio, String fin, String comentario) {
         if (crearCall != null) crearCall.cancel();
-        crearCall = repo.crearIncidencia(bearer, new IncidenciaRequest(tipo, inicio, fin, comentario));
+        crearCall = repo.crearIncidencia(new IncidenciaRequest(tipo, inicio, fin, comentario));
 
         crearCall.enqueue(new Callback<Void>() {
             @Override
@@ -59,38 +75,92 @@ public class IncidenciaViewModel extends ViewModel {
         });
     }
 
-    // Pide el historial de incidencias del usuario y lo publica para el diálogo/lista.
-    public void cargarHistorial(String bearer) {
-        if (bearer == null || bearer.trim().isEmpty()) return;
+    // Pide la primera página del historial de incidencias y reinicia la paginación.
+    public void cargarHistorial() {
+        generacion++;
+        acumulado.clear();
+        hayMas = false;
+        historial.setValue(Collections.emptyList());
+        cargandoHistorial.setValue(true);
+        pedirPagina();
+    }
+
+    // Pide la siguiente página si la hay y no hay otra en curso (la llama el scroll de la lista).
+    public void cargarMasHistorial() {
+        if (!hayMas || cargandoPagina) return;
+        pedirPagina();
+    }
 
+    private void pedirPagina() {
         if (histCall != null) histCall.cancel();
-        histCall = repo.getMisIncidencias(bearer);
+        cargandoPagina = true;
+        final int miGeneracion = generacion;
+        final int desde = acumulado.size();
+        histCall = repo.getMisIncidencias(desde);
 
         histCall.enqueue(new Callback<List<IncidenciaResponse>>() {
             @Override
             public void onResponse(Call<List<IncidenciaResponse>> call, Response<List<IncidenciaResponse>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    historialEvent.postValue(new Event<>(response.body()));
-                } else {
+                if (miGeneracion != generacion) return;
+                cargandoPagina = false;
+                cargandoHistorial.setValue(false);
+
+                if (!response.isSuccessful() || response.body() == null) {
                     handleError(response);
+                    return;
                 }
+
+                List<IncidenciaResponse> pagina = response.body();
+                int limite = IncidenciaRepository.TAM_PAGINA;
+
+                if (pagina.size() > limite) {
+                    // El servidor no pagina: es la lista entera.
+                    acumulado.clear();
+                    acumulado.addAll(pagina);
+                    hayMas = false;
+                } else if (desde > 0 && repiteInicio(pagina)) {
+                    // Ignora el offset y repite la primera página: no hay más que pedir.
+                    hayMas = false;
+                } else {
+                    acumulado.addAll(pagina);
+                    hayMas = pagina.size() == limite;
+                }
+                historial.setValue(new ArrayList<>(acumulado));
             }
 
             @Override
             public void onFailure(Call<List<IncidenciaResponse>> call, Throwable t) {
-                if (call.isCanceled()) return;
+                if (call.isCanceled() || miGeneracion != generacion) return;
+                cargandoPagina = false;
+                cargandoHistorial.setValue(false);
                 toastEvent.postValue(new Event<>("Error Red: " + (t.getMessage() != null ? t.getMessage() : "")));
             }
         });
     }
 
+    // True si la página recibida es igual, fila a fila, al principio de lo ya cargado.
+    private boolean repiteInicio(List<IncidenciaResponse> pagina) {
+        if (pagina.isEmpty() || pagina.size() > acumulado.size()) return false;
+        for (int i = 0; i < pagina.size(); i++) {
+            if (!mismaIncidencia(pagina.get(i), acumulado.get(i))) return false;
+        }
+        return true;
+    }
+
+    // Por id si el backend lo envía; si no, fila completa (dos solicitudes iguales pueden existir de verdad).
+    private static boolean mismaIncidencia(IncidenciaResponse a, IncidenciaResponse b) {
+        if (a.getId() != null && b.getId() != null) return a.getId().equals(b.getId());
+        return Objects.equals(a.getTipo(), b.getTipo())
+                && Objects.equals(a.getEstado(), b.getEstado())
+                && Objects.equals(a.getFechaInicio(), b.getFechaInicio())
+                && Objects.equals(a.getFechaFin(), b.getFechaFin())
+                && Objects.equals(a.getComentarioAdmin(), b.getComentarioAdmin());
+    }
+
     // Convierte códigos HTTP y cuerpos típicos en mensajes cortos y útiles para el usuario.
     private void handleError(Response<?> response) {
-        if (response.code() == 401) {
-            toastEvent.postValue(new Event<>("Tu sesión ha caducado"));
-            logoutEvent.postValue(new Event<>(true));
-            return;
-        }
+        // 401: AuthInterceptor ya ha cerrado la sesión y avisado por logoutEvent.
+        if (response.code() == 401) return;
 
         String errorMsg;
         if (response.code() == 422) {
@@ -0,0 +1,49 @@
+package com.example.trabajoapi.ui.main;
+
+import com.example.trabajoapi.data.ResumenResponse;
+
+/**
+ * Lo que pinta la pantalla principal: estado de presencia y resumen del mes.
+ *
+ * Es inmutable y se publica entero en un solo LiveData, así el botón de fichar y la card
+ * de horas cambian en el mismo frame en vez de a saltos según va contestando cada petición.
+ */
+public final class EstadoDashboard {
+
+    // true = el último fichaje es ENTRADA (está "dentro").
+    private final boolean dentro;
+
+    // Resumen mensual; null mientras no se conoce (o, si ya está cargado, porque no hay datos del mes).
+    private final ResumenResponse resumen;
+
+    // true cuando la carga del servidor ya terminó, con o sin resumen.
+    private final boolean cargado;
+
+    public EstadoDashboard(boolean dentro, ResumenResponse resumen) {
+        this(dentro, resumen, false);
+    }
+
+    private EstadoDashboard(boolean dentro, ResumenResponse resumen, boolean cargado) {
+        this.dentro = dentro;
+        this.resumen = resumen;
+        this.cargado = cargado;
+    }
+
+    public boolean isDentro() { return dentro; }
+    public ResumenResponse getResumen() { return resumen; }
+    public boolean isCargado() { return cargado; }
+
+    // Las partes que llegan a null conservan el valor actual.
+    public EstadoDashboard combinar(Boolean nuevoDentro, ResumenResponse nuevoResumen) {
+        return new EstadoDashboard(
+                nuevoDentro != null ? nuevoDentro : dentro,
+                nuevoResumen != null ? nuevoResumen : resumen,
+                cargado);
+    }
+
+    // Igual, marcando que la carga ha terminado: un resumen que siga a null ya es "sin datos".
+    public EstadoDashboard combinarCargado(Boolean nuevoDentro, ResumenResponse nuevoResumen) {
+        EstadoDashboard c = combinar(nuevoDentro, nuevoResumen);
+        return new EstadoDashboard(c.dentro, c.resumen, true);
+    }
+}
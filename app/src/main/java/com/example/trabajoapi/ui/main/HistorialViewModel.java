@@ -1,55 +1,116 @@
 package com.example.trabajoapi.ui.main;
 
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
 
 import com.example.trabajoapi.data.FichajeResponse;
 import com.example.trabajoapi.data.common.Event;
 import com.example.trabajoapi.data.repository.MainRepository;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
-public class HistorialViewModel extends ViewModel {
+public class HistorialViewModel extends AndroidViewModel {
 
     private final MainRepository repo;
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(false);
     private final MutableLiveData<List<FichajeResponse>> fichajes = new MutableLiveData<>(Collections.emptyList());
     private final MutableLiveData<Event<String>> toastEvent = new MutableLiveData<>();
+    private final Handler principal = new Handler(Looper.getMainLooper());
 
-    public HistorialViewModel() {
-        this.repo = new MainRepository();
+    // Estado de la paginación; solo se toca desde el hilo principal.
+    private final List<FichajeResponse> acumulado = new ArrayList<>();
+    private boolean hayMas = false;
+    private boolean cargandoPagina = false;
+    private int generacion = 0;
+
+    public HistorialViewModel(@NonNull Application application) {
+        super(application);
+        this.repo = new MainRepository(application);
     }
 
     public LiveData<Boolean> getLoading() { return loading; }
     public LiveData<List<FichajeResponse>> getFichajes() { return fichajes; }
     public LiveData<Event<String>> getToastEvent() { return toastEvent; }
 
-    // Carga el historial del usuario y expone progreso y resultado para la UI.
-    public void cargarMisFichajes(String token) {
+    // Carga la primera página del historial (primero desde caché local) y reinicia la paginación.
+    public void cargarMisFichajes() {
+        generacion++;
+        acumulado.clear();
+        hayMas = false;
         loading.setValue(true);
+        pedirPagina(null);
+    }
 
-        repo.obtenerHistorial(token, new Callback<List<FichajeResponse>>() {
+    // Pide la siguiente página si la hay y no hay otra en curso (la llama el scroll de la lista).
+    public void cargarMas() {
+        if (!hayMas || cargandoPagina || acumulado.isEmpty()) return;
+        pedirPagina(acumulado.get(acumulado.size() - 1).getId());
+    }
+
+    private void pedirPagina(Integer antesDeId) {
+        cargandoPagina = true;
+        final int miGeneracion = generacion;
+
+        repo.obtenerPaginaHistorial(antesDeId, new MainRepository.PaginaCallback() {
             @Override
-            public void onResponse(Call<List<FichajeResponse>> call, Response<List<FichajeResponse>> response) {
-                loading.postValue(false);
-                if (response.isSuccessful() && response.body() != null) {
-                    fichajes.postValue(response.body());
-                } else {
-                    toastEvent.postValue(new Event<>("Error al cargar historial: " + response.code()));
-                }
+            public void onPagina(@NonNull List<FichajeResponse> pagina, boolean desdeCache, boolean masPaginas) {
+                enPrincipal(miGeneracion, () -> {
+                    loading.setValue(false);
+
+                    // La caché solo adelanta la primera página; no fija el cursor.
+                    if (desdeCache) {
+                        fichajes.setValue(pagina);
+                        return;
+                    }
+
+                    cargandoPagina = false;
+                    int antes = acumulado.size();
+                    if (antesDeId == null) {
+                        acumulado.addAll(pagina);
+                    } else {
+                        // Un servidor que ignore el cursor repetiría filas: solo se aceptan las más antiguas.
+                        for (FichajeResponse f : pagina) {
+                            if (f.getId() < antesDeId) acumulado.add(f);
+                        }
+                    }
+                    hayMas = masPaginas && acumulado.size() > antes;
+                    fichajes.setValue(new ArrayList<>(acumulado));
+                });
+            }
+
+            @Override
+            public void onErrorServidor(int code) {
+                enPrincipal(miGeneracion, () -> {
+                    loading.setValue(false);
+                    cargandoPagina = false;
+                    if (code == 401) return; // Sesión caducada: lo gestiona AuthInterceptor.
+                    toastEvent.setValue(new Event<>("Error al cargar historial: " + code));
+                });
             }
 
             @Override
-            public void onFailure(Call<List<FichajeResponse>> call, Throwable t) {
-                loading.postValue(false);
-                toastEvent.postValue(new Event<>("Error de red: " + t.getMessage()));
+            public void onFallo(@NonNull Throwable t) {
+                enPrincipal(miGeneracion, () -> {
+                    loading.setValue(false);
+                    cargandoPagina = false;
+                    toastEvent.setValue(new Event<>("Error de red: " + t.getMessage()));
+                });
             }
         });
     }
+
+    // Las respuestas llegan en otros hilos: se aplican en el principal, descartando las de una carga anterior.
+    private void enPrincipal(int miGeneracion, Runnable r) {
+        principal.post(() -> {
+            if (miGeneracion == generacion) r.run();
+        });
+    }
 }
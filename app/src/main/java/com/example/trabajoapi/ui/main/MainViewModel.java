@@ -1,22 +1,24 @@
 package com.example.trabajoapi.ui.main;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.trabajoapi.data.ChangePasswordRequest;
-import com.example.trabajoapi.data.FichajeRequest;
 import com.example.trabajoapi.data.FichajeResponse;
 import com.example.trabajoapi.data.RecordatorioResponse;
 import com.example.trabajoapi.data.ResumenResponse;
+import com.example.trabajoapi.data.TokenHolder;
 import com.example.trabajoapi.data.common.Event;
 import com.example.trabajoapi.data.repository.MainRepository;
 
 import org.json.JSONObject;
 
-import java.util.List;
-
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -25,7 +27,7 @@ import retrofit2.Response;
  * ViewModel principal de la pantalla Main.
  *
  * Responsabilidad:
- * - Exponer estado observable para la UI (dentro/fuera, resumen mensual, historial).
+ * - Exponer estado observable para la UI (dentro/fuera y resumen mensual, juntos en EstadoDashboard).
  * - Coordinar llamadas al repositorio para fichar, consultar historial/resumen, recordatorios y cambio de contraseña.
  * - Traducir respuestas del backend a mensajes de UI (toast/diálogo), sin tocar la vista directamente.
  *
@@ -37,93 +39,129 @@ public class MainViewModel extends ViewModel {
 
     private final MainRepository repo;
 
-    // Estado de presencia: true = el último fichaje es ENTRADA (está "dentro"), false = SALIDA o vacío.
-    private final MutableLiveData<Boolean> dentro = new MutableLiveData<>(false);
-
-    // Resumen mensual (horas teóricas, trabajadas, saldo, etc).
-    private final MutableLiveData<ResumenResponse> resumen = new MutableLiveData<>();
-
-    // Historial (normalmente últimos 50 fichajes).
-    private final MutableLiveData<List<FichajeResponse>> historial = new MutableLiveData<>();
+    // Estado de presencia + resumen mensual; se publican juntos (solo se escribe desde el hilo principal).
+    private final MutableLiveData<EstadoDashboard> dashboard =
+            new MutableLiveData<>(new EstadoDashboard(false, null));
 
     // Eventos "one-shot" para UI (no deben repetirse en rotaciones).
     private final MutableLiveData<Event<String>> toastEvent = new MutableLiveData<>();
     private final MutableLiveData<Event<RecordatorioResponse>> recordatorioEvent = new MutableLiveData<>();
-    private final MutableLiveData<Event<Boolean>> logoutEvent = new MutableLiveData<>();
-    private final MutableLiveData<Event<List<FichajeResponse>>> historialDialogEvent = new MutableLiveData<>();
+    private final MediatorLiveData<Event<Boolean>> logoutEvent = new MediatorLiveData<>();
+
+    private final Handler principal = new Handler(Looper.getMainLooper());
+
+    // Cada cargarDashboard descarta lo que aún no haya llegado de la anterior (solo hilo principal).
+    private int generacion = 0;
 
     public MainViewModel(MainRepository repo) {
         this.repo = repo;
+
+        // El 401 se gestiona en AuthInterceptor; aquí solo se traduce a aviso + logout de la pantalla.
+        logoutEvent.addSource(TokenHolder.getSesionCaducada(), e -> {
+            if (e == null) return;
+            toastEvent.setValue(new Event<>("Sesión caducada. Entra de nuevo."));
+            logoutEvent.setValue(e);
+        });
     }
 
     // --- GETTERS para observación en la Activity ---
 
-    public LiveData<Boolean> getDentro() { return dentro; }
-    public LiveData<ResumenResponse> getResumen() { return resumen; }
-    public LiveData<List<FichajeResponse>> getHistorial() { return historial; }
+    public LiveData<EstadoDashboard> getDashboard() { return dashboard; }
     public LiveData<Event<String>> getToastEvent() { return toastEvent; }
     public LiveData<Event<RecordatorioResponse>> getRecordatorioEvent() { return recordatorioEvent; }
     public LiveData<Event<Boolean>> getLogoutEvent() { return logoutEvent; }
-    public LiveData<Event<List<FichajeResponse>>> getHistorialDialogEvent() { return historialDialogEvent; }
 
     /**
-     * Refresca lo necesario para pintar el dashboard:
-     * - Estado de fichaje (dentro/fuera).
-     * - Resumen de horas extra.
+     * Refresca todo lo que pinta el dashboard (estado, resumen del mes y recordatorio) con una sola llamada.
+     * - Pinta primero lo que se sabe en local (último fichaje en caché y cálculo del resumen).
+     * - Lo del servidor llega junto y se publica de una vez; manda sobre lo local.
+     * - Si el backend no tiene /dashboard, el repositorio lanza las tres peticiones en paralelo y las junta.
+     * Llamar desde el hilo principal.
      */
-    public void cargarDashboard(@NonNull String bearer) {
-        consultarEstadoFichaje(bearer);
-        obtenerHorasExtra(bearer);
-    }
+    public void cargarDashboard() {
+        final int miGeneracion = ++generacion;
 
-    /**
-     * Consulta historial y deduce el estado:
-     * - Si el último fichaje (lista[0]) es ENTRADA => dentro=true
-     * - Si es SALIDA o no hay fichajes => dentro=false
-     *
-     * Nota: depende de que el backend devuelva el historial ordenado DESC en /mis-fichajes.
-     */
-    public void consultarEstadoFichaje(@NonNull String bearer) {
-        repo.obtenerHistorial(bearer, new Callback<List<FichajeResponse>>() {
-            @Override
-            public void onResponse(@NonNull Call<List<FichajeResponse>> call, @NonNull Response<List<FichajeResponse>> response) {
-                if (response.code() == 401) {
-                    logoutEvent.postValue(new Event<>(true));
-                    return;
-                }
+        repo.cargarDashboard(new MainRepository.DashboardCallback() {
+            private boolean servidorRecibido = false;
 
-                if (response.isSuccessful() && response.body() != null) {
-                    List<FichajeResponse> lista = response.body();
-                    historial.postValue(lista);
-
-                    boolean dentroNow = !lista.isEmpty()
-                            && "ENTRADA".equalsIgnoreCase(lista.get(0).getTipo());
+            @Override
+            public void onLocal(Boolean dentroLocal, ResumenResponse resumenLocal) {
+                enPrincipal(miGeneracion, () -> {
+                    if (!servidorRecibido) publicar(dentroLocal, resumenLocal);
+                });
+            }
 
-                    dentro.postValue(dentroNow);
-                }
+            @Override
+            public void onServidor(Boolean dentroNow, ResumenResponse resumenNow, RecordatorioResponse r) {
+                enPrincipal(miGeneracion, () -> {
+                    servidorRecibido = true;
+                    publicarCargado(dentroNow, resumenNow);
+                    if (debeMostrarRecordatorio(r)) recordatorioEvent.setValue(new Event<>(r));
+                });
             }
 
             @Override
-            public void onFailure(@NonNull Call<List<FichajeResponse>> call, @NonNull Throwable t) {
-                toastEvent.postValue(new Event<>("Sin conexión al servidor"));
+            public void onFallo(@NonNull Throwable t) {
+                enPrincipal(miGeneracion, () -> {
+                    // Lo local que hubiera se queda; si no había resumen, la card pasa a "sin datos".
+                    publicarCargado(null, null);
+                    toastEvent.setValue(new Event<>("Sin conexión al servidor"));
+                });
             }
         });
     }
 
     /**
-     * Recupera el resumen mensual (por defecto mes/año actuales) y lo expone a la UI.
+     * Consulta solo el estado de presencia (dentro/fuera) con la llamada ligera /estado-fichaje.
+     * - Pinta primero lo deducido de la caché local y se corrige con la respuesta del servidor.
+     * - Si el backend no tiene ese endpoint, el repositorio deduce el estado del historial
+     *   (lista[0] ENTRADA => dentro), que depende de que /mis-fichajes venga ordenado DESC.
      */
-    public void obtenerHorasExtra(@NonNull String bearer) {
-        repo.getResumen(bearer, null, null, new Callback<ResumenResponse>() {
+    public void consultarEstadoFichaje() {
+        repo.consultarEstado(new MainRepository.EstadoCallback() {
             @Override
-            public void onResponse(@NonNull Call<ResumenResponse> call, @NonNull Response<ResumenResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    resumen.postValue(response.body());
-                }
+            public void onEstado(boolean dentroNow, boolean desdeCache) {
+                publicarDentro(dentroNow);
             }
 
             @Override
-            public void onFailure(@NonNull Call<ResumenResponse> call, @NonNull Throwable t) { }
+            public void onErrorServidor(int code) { }
+
+            @Override
+            public void onFallo(@NonNull Throwable t) {
+                toastEvent.postValue(new Event<>("Sin conexión al servidor"));
+            }
+        });
+    }
+
+    // Publica un único estado nuevo; las partes a null conservan el valor actual (solo hilo principal).
+    private void publicar(Boolean dentroNow, ResumenResponse resumenNow) {
+        EstadoDashboard actual = dashboard.getValue();
+        if (actual == null) actual = new EstadoDashboard(false, null);
+        dashboard.setValue(actual.combinar(dentroNow, resumenNow));
+    }
+
+    // Como publicar, al terminar la carga del dashboard (solo hilo principal).
+    private void publicarCargado(Boolean dentroNow, ResumenResponse resumenNow) {
+        EstadoDashboard actual = dashboard.getValue();
+        if (actual == null) actual = new EstadoDashboard(false, null);
+        dashboard.setValue(actual.combinarCargado(dentroNow, resumenNow));
+    }
+
+    // Cambia solo el estado de presencia (desde cualquier hilo).
+    private void publicarDentro(boolean dentroNow) {
+        principal.post(() -> publicar(dentroNow, null));
+    }
+
+    private boolean estaDentro() {
+        EstadoDashboard actual = dashboard.getValue();
+        return actual != null && actual.isDentro();
+    }
+
+    // Las respuestas llegan en otros hilos: se aplican en el principal, descartando las de una carga anterior.
+    private void enPrincipal(int miGeneracion, Runnable r) {
+        principal.post(() -> {
+            if (miGeneracion == generacion) r.run();
         });
     }
 
@@ -131,20 +169,10 @@ public class MainViewModel extends ViewModel {
      * Fichaje manual:
      * - Enviamos lat/lon, nfc_data = null.
      * - El backend decide si corresponde ENTRADA o SALIDA.
+     * - El fichaje se confirma en cuanto queda en la cola local; si no hay red, se envía después.
      */
-    public void fichar(@NonNull String bearer, double lat, double lon, String ignorarNfc) {
-        FichajeRequest req = new FichajeRequest(lat, lon, null);
-        repo.fichar(bearer, req, new Callback<FichajeResponse>() {
-            @Override
-            public void onResponse(@NonNull Call<FichajeResponse> call, @NonNull Response<FichajeResponse> response) {
-                manejarRespuestaFichaje(response, bearer, "Manual");
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<FichajeResponse> call, @NonNull Throwable t) {
-                toastEvent.postValue(new Event<>("Error de red: revisa tu conexión"));
-            }
-        });
+    public void fichar(double lat, double lon, String ignorarNfc) {
+        repo.fichar(lat, lon, null, crearCallbackFichaje("Manual"));
     }
 
     /**
@@ -152,31 +180,54 @@ public class MainViewModel extends ViewModel {
      * - Enviamos lat/lon + nfcId leído del tag.
      * - El backend valida si el NFC es el de oficina o el personal (según configuración).
      */
-    public void realizarFichajeNfc(@NonNull String bearer, double lat, double lon, String nfcId) {
-        repo.ficharPorNfc(bearer, lat, lon, nfcId, new Callback<FichajeResponse>() {
+    public void realizarFichajeNfc(double lat, double lon, String nfcId) {
+        repo.fichar(lat, lon, nfcId, crearCallbackFichaje("NFC"));
+    }
+
+    /**
+     * Callback común de fichaje (manual y NFC) sobre la cola local del repositorio.
+     */
+    private MainRepository.FichajeCallback crearCallbackFichaje(String origen) {
+        return new MainRepository.FichajeCallback() {
             @Override
-            public void onResponse(@NonNull Call<FichajeResponse> call, @NonNull Response<FichajeResponse> response) {
-                manejarRespuestaFichaje(response, bearer, "NFC");
+            public void onEncolado() {
+                // Ya está a salvo en la cola: el botón cambia al momento sin esperar a la red.
+                // El backend alterna ENTRADA/SALIDA, así que reflejamos el cambio de forma optimista.
+                principal.post(() -> publicar(!estaDentro(), null));
             }
 
             @Override
-            public void onFailure(@NonNull Call<FichajeResponse> call, @NonNull Throwable t) {
-                toastEvent.postValue(new Event<>("Error de conexión al fichar por NFC"));
+            public void onRespuesta(@NonNull Response<FichajeResponse> response) {
+                manejarRespuestaFichaje(response, origen);
             }
-        });
+
+            @Override
+            public void onGuardadoSinConexion() {
+                // El cambio optimista ya se hizo en onEncolado.
+                toastEvent.postValue(new Event<>("Sin conexión: fichaje guardado. Se enviará automáticamente."));
+            }
+
+            @Override
+            public void onError(@NonNull Throwable t) {
+                toastEvent.postValue(new Event<>("NFC".equals(origen)
+                        ? "Error de conexión al fichar por NFC"
+                        : "Error de red: revisa tu conexión"));
+
+                // Re-emite el estado actual para que la UI reactive el botón.
+                principal.post(() -> publicar(estaDentro(), null));
+            }
+        };
     }
 
     /**
      * Interpreta una respuesta de /fichar o /fichar-nfc:
      * - Si éxito: publica mensaje, actualiza "dentro" y refresca datos (resumen + estado).
-     * - Si error: traduce el error del backend a un texto entendible.
+     * - Si error: traduce el error del backend a un texto entendible y deshace el cambio optimista
+     *   pidiendo el estado real.
      */
-    private void manejarRespuestaFichaje(Response<FichajeResponse> response, String bearer, String origen) {
-        if (response.code() == 401) {
-            toastEvent.postValue(new Event<>("Sesión caducada. Entra de nuevo."));
-            logoutEvent.postValue(new Event<>(true));
-            return;
-        }
+    private void manejarRespuestaFichaje(Response<FichajeResponse> response, String origen) {
+        // 401: AuthInterceptor ya ha cerrado la sesión y avisado por logoutEvent.
+        if (response.code() == 401) return;
 
         if (response.isSuccessful() && response.body() != null) {
             String tipo = response.body().getTipo();
@@ -188,15 +239,15 @@ public class MainViewModel extends ViewModel {
             toastEvent.postValue(new Event<>(mensajeExito));
 
             boolean dentroNow = "ENTRADA".equalsIgnoreCase(tipo);
-            dentro.postValue(dentroNow);
+            publicarDentro(dentroNow);
 
             // Refresca datos visibles después del fichaje (evita UI desincronizada).
-            obtenerHorasExtra(bearer);
-            consultarEstadoFichaje(bearer);
+            principal.post(this::cargarDashboard);
 
         } else {
             String mensajeAmigable = analizarErrorServer(response);
             toastEvent.postValue(new Event<>(mensajeAmigable));
+            consultarEstadoFichaje();
         }
     }
 
@@ -254,97 +305,30 @@ public class MainViewModel extends ViewModel {
     }
 
     /**
-     * Consulta al backend si hay que avisar al usuario por falta de fichaje.
-     *
-     * Comportamiento actual:
-     * - 401 => forzar logout
-     * - 204 => no hay recordatorio (silencioso)
-     * - 200 con body => si avisar=true o hay texto, emite recordatorioEvent
+     * Decide si el recordatorio que acompaña al dashboard se muestra:
+     * - null => no hay recordatorio (el backend devolvió 204 o no lo incluyó)
+     * - avisar=true, o sin flag pero con título/mensaje => se muestra
      *
      * Esto permite que el backend decida si es falta de ENTRADA o SALIDA.
      */
-    public void comprobarRecordatorio(@NonNull String bearer) {
-        repo.getRecordatorio(bearer, new Callback<RecordatorioResponse>() {
-            @Override
-            public void onResponse(@NonNull Call<RecordatorioResponse> call, @NonNull Response<RecordatorioResponse> response) {
-
-                if (response.code() == 401) {
-                    logoutEvent.postValue(new Event<>(true));
-                    return;
-                }
-
-                // Si el backend devuelve 204, significa "no hay nada que avisar".
-                if (response.code() == 204) {
-                    return;
-                }
-
-                if (!response.isSuccessful()) {
-                    return;
-                }
-
-                RecordatorioResponse r = response.body();
-                if (r == null) return;
-
-                boolean debeMostrar = false;
-
-                // Caso ideal: backend envía avisar=true.
-                try {
-                    if (r.isAvisar()) {
-                        debeMostrar = true;
-                    }
-                } catch (Exception ignored) { }
-
-                // Fallback: si no existe avisar pero hay título/mensaje, también lo mostramos.
-                if (!debeMostrar) {
-                    String t = null;
-                    String m = null;
-                    try { t = r.getTitulo(); } catch (Exception ignored) { }
-                    try { m = r.getMensaje(); } catch (Exception ignored) { }
-
-                    boolean hayTexto =
-                            (t != null && !t.trim().isEmpty()) ||
-                                    (m != null && !m.trim().isEmpty());
-
-                    if (hayTexto) debeMostrar = true;
-                }
-
-                if (debeMostrar) {
-                    recordatorioEvent.postValue(new Event<>(r));
-                }
-            }
-
-            @Override
-            public void onFailure(@NonNull Call<RecordatorioResponse> call, @NonNull Throwable t) { }
-        });
-    }
+    private static boolean debeMostrarRecordatorio(RecordatorioResponse r) {
+        if (r == null) return false;
 
-    /**
-     * Recupera historial y lo publica como Event para abrir un diálogo en la UI.
-     */
-    public void pedirHistorialParaDialogo(@NonNull String bearer) {
-        repo.obtenerHistorial(bearer, new Callback<List<FichajeResponse>>() {
-            @Override
-            public void onResponse(@NonNull Call<List<FichajeResponse>> call, @NonNull Response<List<FichajeResponse>> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    historialDialogEvent.postValue(new Event<>(response.body()));
-                } else {
-                    toastEvent.postValue(new Event<>("No se pudo cargar el historial"));
-                }
-            }
+        // Caso ideal: backend envía avisar=true.
+        if (r.isAvisar()) return true;
 
-            @Override
-            public void onFailure(@NonNull Call<List<FichajeResponse>> call, @NonNull Throwable t) {
-                toastEvent.postValue(new Event<>("Error de red"));
-            }
-        });
+        // Fallback: si no existe avisar pero hay título/mensaje, también lo mostramos.
+        String t = r.getTitulo();
+        String m = r.getMensaje();
+        return (t != null && !t.trim().isEmpty()) || (m != null && !m.trim().isEmpty());
     }
 
     /**
      * Solicita cambio de contraseña.
      */
-    public void cambiarPassword(@NonNull String bearer, @NonNull String actual, @NonNull String nueva) {
+    public void cambiarPassword(@NonNull String actual, @NonNull String nueva) {
         ChangePasswordRequest req = new ChangePasswordRequest(actual, nueva);
-        repo.changePassword(bearer, req, new Callback<Void>() {
+        repo.changePassword(req, new Callback<Void>() {
             @Override
             public void onResponse(@NonNull Call<Void> call, @NonNull Response<Void> response) {
                 if (response.isSuccessful()) toastEvent.postValue(new Event<>("Contraseña actualizada"));
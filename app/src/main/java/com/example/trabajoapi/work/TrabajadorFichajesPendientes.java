@@ -0,0 +1,93 @@
+package com.example.trabajoapi.work;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.core.content.ContextCompat;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.trabajoapi.MainActivity;
+import com.example.trabajoapi.data.SessionManager;
+import com.example.trabajoapi.data.repository.MainRepository;
+
+public class TrabajadorFichajesPendientes extends Worker {
+
+    private static final String CHANNEL_ID = "canal_fichajes_pendientes_v1";
+
+    public TrabajadorFichajesPendientes(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    // Envía en orden de captura los fichajes guardados sin conexión y los saca de la cola al confirmarse.
+    // Comparte vaciado con los envíos desde la app (MainRepository.vaciarCola): nunca mandan el mismo fichaje a la vez.
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context ctx = getApplicationContext();
+
+        SessionManager sm = new SessionManager(ctx);
+        // Sin sesión no se puede enviar; se reprogramará al volver a entrar.
+        if (sm.getAuthToken() == null) return Result.success();
+
+        MainRepository repo = new MainRepository(ctx);
+
+        MainRepository.ResultadoCola resultado = repo.vaciarCola(sm.getIdTrabajador(), (p, resp) -> {
+            if (!resp.isSuccessful()) avisarRechazo(ctx, resp.code());
+        });
+
+        // Red caída otra vez, 5xx o un envío de la app en curso: se respeta el orden y se reintenta todo más tarde.
+        return resultado == MainRepository.ResultadoCola.REINTENTAR ? Result.retry() : Result.success();
+    }
+
+    // Avisa al usuario de que un fichaje guardado sin conexión no fue aceptado por el servidor.
+    public static void avisarRechazo(Context ctx, int code) {
+        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.TIRAMISU) {
+            if (ContextCompat.checkSelfPermission(ctx, Manifest.permission.POST_NOTIFICATIONS)
+                    != PackageManager.PERMISSION_GRANTED) {
+                return;
+            }
+        }
+
+        NotificationManager nm = (NotificationManager) ctx.getSystemService(Context.NOTIFICATION_SERVICE);
+
+        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                    CHANNEL_ID,
+                    "Fichajes sin conexión",
+                    NotificationManager.IMPORTANCE_HIGH
+            );
+            nm.createNotificationChannel(channel);
+        }
+
+        Intent intent = new Intent(ctx, MainActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+
+        PendingIntent pi = PendingIntent.getActivity(
+                ctx,
+                0,
+                intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        String cuerpo = "Un fichaje guardado sin conexión no se pudo registrar (HTTP " + code + "). Revisa tu historial.";
+
+        NotificationCompat.Builder b = new NotificationCompat.Builder(ctx, CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_dialog_alert)
+                .setContentTitle("Fichaje no registrado")
+                .setContentText(cuerpo)
+                .setStyle(new NotificationCompat.BigTextStyle().bigText(cuerpo))
+                .setAutoCancel(true)
+                .setContentIntent(pi)
+                .setPriority(NotificationCompat.PRIORITY_HIGH);
+
+        nm.notify(502, b.build());
+    }
+}
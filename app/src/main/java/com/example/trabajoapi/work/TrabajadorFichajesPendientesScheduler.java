@@ -0,0 +1,39 @@
+package com.example.trabajoapi.work;
+
+import android.content.Context;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.concurrent.TimeUnit;
+
+public final class TrabajadorFichajesPendientesScheduler {
+
+    private static final String UNIQUE_NAME = "sync_fichajes_pendientes";
+
+    private TrabajadorFichajesPendientesScheduler() { }
+
+    // Encola el vaciado de la cola offline; WorkManager lo lanza en cuanto vuelve la conexión.
+    public static void programar(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest req =
+                new OneTimeWorkRequest.Builder(TrabajadorFichajesPendientes.class)
+                        .setConstraints(constraints)
+                        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                        .build();
+
+        // APPEND_OR_REPLACE: si ya hay un vaciado en curso, se encadena otro para recoger lo recién encolado.
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                UNIQUE_NAME,
+                ExistingWorkPolicy.APPEND_OR_REPLACE,
+                req
+        );
+    }
+}
@@ -45,13 +45,12 @@ public class TrabajadorRecordatorio extends Worker {
             }
 
             SessionManager sm = new SessionManager(ctx);
-            String auth = sm.getAuthToken();
-            if (auth == null) return Result.success();
+            if (sm.getAuthToken() == null) return Result.success();
 
             Response<RecordatorioResponse> resp =
                     RetrofitClient.getInstance()
                             .getMyApi()
-                            .getRecordatorioFichaje("Bearer " + auth)
+                            .getRecordatorioFichaje()
                             .execute();
 
             if (resp.code() == 204) return Result.success();
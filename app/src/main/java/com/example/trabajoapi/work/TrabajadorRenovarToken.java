@@ -0,0 +1,38 @@
+package com.example.trabajoapi.work;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.trabajoapi.data.TokenHolder;
+import com.example.trabajoapi.data.repository.AuthRepository;
+
+import java.io.IOException;
+
+public class TrabajadorRenovarToken extends Worker {
+
+    public TrabajadorRenovarToken(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    // Renueva el access token antes de que caduque, para que ni la app ni los demás workers se encuentren un 401.
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context ctx = getApplicationContext();
+
+        String token = TokenHolder.get();
+        if (token == null) return Result.success();
+
+        try {
+            // Si renueva, AuthRepository deja programada la siguiente; si el refresh token ya no vale,
+            // no se cierra nada aquí: la app lo resolverá (login) la próxima vez que se use.
+            AuthRepository.renovarToken(ctx, token);
+            return Result.success();
+        } catch (IOException e) {
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.trabajoapi.work;
+
+import android.content.Context;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.example.trabajoapi.data.Jwt;
+import com.example.trabajoapi.data.SessionManager;
+
+import java.util.concurrent.TimeUnit;
+
+public final class TrabajadorRenovarTokenScheduler {
+
+    private static final String UNIQUE_NAME = "renovar_token_sesion";
+
+    // Cuánto antes de la caducidad se renueva en segundo plano.
+    private static final long ANTELACION_MS = 5L * 60 * 1000;
+
+    private TrabajadorRenovarTokenScheduler() { }
+
+    /**
+     * Programa la renovación del access token un poco antes de que caduque (según su "exp").
+     * Sustituye a la programada antes; sin refresh token o sin "exp" no hay nada que programar.
+     */
+    public static void programar(Context context) {
+        SessionManager sm = new SessionManager(context);
+        if (sm.getRefreshToken() == null) return;
+
+        long exp = Jwt.expiracionMs(sm.getAuthToken());
+        if (exp == Jwt.SIN_EXPIRACION) return;
+
+        long retrasoMs = Math.max(0, exp - ANTELACION_MS - System.currentTimeMillis());
+
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        OneTimeWorkRequest req =
+                new OneTimeWorkRequest.Builder(TrabajadorRenovarToken.class)
+                        .setInitialDelay(retrasoMs, TimeUnit.MILLISECONDS)
+                        .setConstraints(constraints)
+                        .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                        .build();
+
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                UNIQUE_NAME,
+                ExistingWorkPolicy.REPLACE,
+                req
+        );
+    }
+
+    // Al cerrar sesión: ya no hay nada que renovar.
+    public static void cancelar(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(UNIQUE_NAME);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.trabajoapi.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lo que JsonApi añade al binding reflexivo de Gson: Rol como texto con instancia compartida,
+ * nombres de empleados compartidos y la lectura de listas por bloques.
+ */
+public class JsonApiTest {
+
+    private static final Type LISTA_TRABAJADORES = new TypeToken<List<TrabajadorResponse>>() { }.getType();
+
+    @Test
+    public void rolSeLeeComoInstanciaCompartida() {
+        List<TrabajadorResponse> l = JsonApi.gson().fromJson(
+                "[{\"id_trabajador\":1,\"rol_nombre\":\"Administrador\"},"
+                        + "{\"id_trabajador\":2,\"rol_nombre\":\"Administrador\"},"
+                        + "{\"id_trabajador\":3,\"rol_nombre\":null},"
+                        + "{\"id_trabajador\":4}]",
+                LISTA_TRABAJADORES);
+
+        assertSame(Rol.de("Administrador"), l.get(0).getRol());
+        assertSame(l.get(0).getRol(), l.get(1).getRol());
+        assertSame(Rol.TRABAJADOR, l.get(2).getRol());
+        assertSame(Rol.TRABAJADOR, l.get(3).getRol());
+    }
+
+    @Test
+    public void nombresRepetidosCompartenInstancia() {
+        // Gson crea un String nuevo por cada valor leído: sin el pool serían instancias distintas.
+        String json = "[{\"id_trabajador\":1,\"nombre\":\"María\",\"apellidos\":\"Sánchez Gil\"},"
+                + "{\"id_trabajador\":2,\"nombre\":\"María\",\"apellidos\":\"Sánchez Gil\","
+                + "\"nif\":\"12345678Z\",\"desconocido\":{\"a\":[1,2]}}]";
+
+        List<TrabajadorResponse> l = JsonApi.gson().fromJson(json, LISTA_TRABAJADORES);
+
+        assertEquals("María", l.get(1).getNombre());
+        assertSame(l.get(0).getNombre(), l.get(1).getNombre());
+        assertSame(l.get(0).getApellidos(), l.get(1).getApellidos());
+        assertEquals("12345678Z", l.get(1).getNif());
+        assertEquals("---", l.get(0).getNif());
+    }
+
+    @Test
+    public void trabajadorIdaYVuelta() {
+        TrabajadorResponse t = JsonApi.gson().fromJson(
+                "{\"id_trabajador\":9,\"nombre\":\"Ana\",\"apellidos\":\"Gómez\",\"email\":\"ana@empresa.es\","
+                        + "\"rol_nombre\":\"Jefe de turno\"}",
+                TrabajadorResponse.class);
+
+        String json = JsonApi.gson().toJson(t);
+        assertTrue(json, json.contains("\"rol_nombre\":\"Jefe de turno\""));
+
+        TrabajadorResponse otra = JsonApi.gson().fromJson(json, TrabajadorResponse.class);
+        assertNotSame(t, otra);
+        assertEquals(9, otra.getIdTrabajador());
+        assertEquals("Ana Gómez", otra.getNombreCompleto());
+        assertSame(t.getRol(), otra.getRol());
+    }
+
+    @Test
+    public void leerListaPorBloquesEntregaTodasLasFilas() throws IOException {
+        int filas = 1_234;
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < filas; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(String.format(Locale.US,
+                    "{\"id\":%d,\"tipo\":\"%s\",\"fecha_hora\":\"2026-03-%02dT08:00:00\",\"latitud\":40.5,\"longitud\":-3.7}",
+                    i + 1, i % 2 == 0 ? "ENTRADA" : "SALIDA", 1 + i % 28));
+        }
+        sb.append(']');
+
+        final List<FichajeResponse> recibidos = new ArrayList<>();
+        final List<Integer> tamanos = new ArrayList<>();
+        int total = JsonApi.leerListaPorBloques(new StringReader(sb.toString()), FichajeResponse.class, 500,
+                new JsonApi.ReceptorBloques<FichajeResponse>() {
+                    @Override
+                    public void onBloque(List<FichajeResponse> bloque) {
+                        tamanos.add(bloque.size());
+                        recibidos.addAll(bloque);
+                    }
+                });
+
+        assertEquals(filas, total);
+        assertEquals(filas, recibidos.size());
+        assertEquals(3, tamanos.size());
+        assertEquals(Integer.valueOf(234), tamanos.get(2));
+        for (int i = 0; i < filas; i++) assertEquals(i + 1, recibidos.get(i).getId());
+        assertEquals("2026-03-01T08:00:00", recibidos.get(0).getFechaHora());
+    }
+
+    @Test
+    public void leerListaPorBloquesConCuerpoNull() throws IOException {
+        final int[] bloques = {0};
+        int total = JsonApi.leerListaPorBloques(new StringReader("null"), FichajeResponse.class, 10,
+                new JsonApi.ReceptorBloques<FichajeResponse>() {
+                    @Override
+                    public void onBloque(List<FichajeResponse> bloque) {
+                        bloques[0]++;
+                    }
+                });
+
+        assertEquals(0, total);
+        assertEquals(0, bloques[0]);
+    }
+}
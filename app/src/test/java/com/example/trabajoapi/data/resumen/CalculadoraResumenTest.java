@@ -0,0 +1,264 @@
+package com.example.trabajoapi.data.resumen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.trabajoapi.data.FichajeResponse;
+import com.example.trabajoapi.data.JsonApi;
+import com.example.trabajoapi.data.ResumenResponse;
+
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Resumen calculado en el dispositivo frente a resúmenes de /api/resumen con valores fijos.
+ *
+ * Las entradas son cuerpos de /api/mis-fichajes y lo esperado cuerpos de /api/resumen, tal como
+ * viajan y leídos con JsonApi. Los totales de cada día están hechos a mano en los comentarios.
+ */
+public class CalculadoraResumenTest {
+
+    private static final Type LISTA_FICHAJES = new TypeToken<List<FichajeResponse>>() { }.getType();
+
+    private static final int ANIO = 2026;
+    private static final int MES = 3;
+    private static final String HOY = "2026-03-20";
+    // Marzo de 2026 tiene 22 días laborables de 8 h.
+    private static final long TEORICAS_SEG = 22L * 8 * 3600;
+
+    /*
+     * Marzo con las anomalías habituales:
+     * - 02: 08:00-14:00 y 15:00-17:30                  -> 30600 s
+     * - 03: 07:58:12-16:03:47                           -> 29135 s
+     * - 04: 08:00-16:15, hora sin segundos              -> 29700 s
+     * - 05: ENTRADA sin SALIDA en un día pasado         -> 0 s, incompleto
+     * - 06: SALIDA huérfana y luego 09:00-13:00         -> 14400 s, incompleto
+     * - 09: dos ENTRADA seguidas; cuenta 08:05-15:00    -> 24900 s, incompleto
+     * - 20: ENTRADA abierta hoy (jornada en marcha)     -> 0 s
+     * Además un reenvío (id 3 repetido) y fichajes de febrero y abril que no cuentan.
+     * Total 128735 s; saldo 128735 - 633600 = -504865 s.
+     */
+    private static final String FICHAJES_MARZO = "["
+            + "{\"id\":1,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-02T08:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":2,\"tipo\":\"SALIDA\",\"fecha_hora\":\"2026-03-02T14:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":3,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-02T15:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":4,\"tipo\":\"SALIDA\",\"fecha_hora\":\"2026-03-02T17:30:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":5,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-03T07:58:12\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":6,\"tipo\":\"SALIDA\",\"fecha_hora\":\"2026-03-03T16:03:47\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":7,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-04T08:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":8,\"tipo\":\"SALIDA\",\"fecha_hora\":\"2026-03-04T16:15\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":9,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-05T09:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":10,\"tipo\":\"SALIDA\",\"fecha_hora\":\"2026-03-06T08:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":11,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-06T09:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":12,\"tipo\":\"SALIDA\",\"fecha_hora\":\"2026-03-06T13:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":13,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-09T08:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":14,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-09T08:05:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":15,\"tipo\":\"SALIDA\",\"fecha_hora\":\"2026-03-09T15:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":16,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-20T08:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":3,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-03-02T15:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":17,\"tipo\":\"SALIDA\",\"fecha_hora\":\"2026-02-27T17:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038},"
+            + "{\"id\":18,\"tipo\":\"ENTRADA\",\"fecha_hora\":\"2026-04-01T08:00:00\",\"latitud\":40.4168,\"longitud\":-3.7038}"
+            + "]";
+
+    private static final String RESUMEN_MARZO_DIA_20 = "{\"mes\":\"03/2026\","
+            + "\"teoricas\":176.0,\"trabajadas\":35.76,\"saldo\":-140.24,"
+            + "\"teoricas_seg\":633600,\"trabajadas_seg\":128735,\"saldo_seg\":-504865,"
+            + "\"dias_incompletos\":[\"2026-03-05\",\"2026-03-06\",\"2026-03-09\"],"
+            + "\"num_dias_incompletos\":3,\"calculo_confiable\":false}";
+
+    // Al día siguiente la ENTRADA del 20 ya no es una jornada en marcha.
+    private static final String RESUMEN_MARZO_DIA_21 = "{\"mes\":\"03/2026\","
+            + "\"teoricas\":176.0,\"trabajadas\":35.76,\"saldo\":-140.24,"
+            + "\"teoricas_seg\":633600,\"trabajadas_seg\":128735,\"saldo_seg\":-504865,"
+            + "\"dias_incompletos\":[\"2026-03-05\",\"2026-03-06\",\"2026-03-09\",\"2026-03-20\"],"
+            + "\"num_dias_incompletos\":4,\"calculo_confiable\":false}";
+
+    // Solo los días 2 y 3 de FICHAJES_MARZO: 30600 + 29135 = 59735 s; saldo -573865 s.
+    private static final String RESUMEN_DIAS_2_Y_3 = "{\"mes\":\"03/2026\","
+            + "\"teoricas\":176.0,\"trabajadas\":16.59,\"saldo\":-159.41,"
+            + "\"teoricas_seg\":633600,\"trabajadas_seg\":59735,\"saldo_seg\":-573865,"
+            + "\"dias_incompletos\":[],\"num_dias_incompletos\":0,\"calculo_confiable\":true}";
+
+    @Test
+    public void mesConAnomaliasCoincideConServidor() {
+        CalculadoraResumen calc = nuevaCalculadora();
+        assertTrue(calc.agregarTodos(fichajes(FICHAJES_MARZO)));
+
+        assertMismoResumen("marzo", resumen(RESUMEN_MARZO_DIA_20), calc.calcular(HOY));
+    }
+
+    @Test
+    public void diasCompletosSonConfiables() {
+        List<FichajeResponse> dias2y3 = new ArrayList<>();
+        for (FichajeResponse f : fichajes(FICHAJES_MARZO)) {
+            if (f.getFechaHora().startsWith("2026-03-02") || f.getFechaHora().startsWith("2026-03-03")) dias2y3.add(f);
+        }
+
+        CalculadoraResumen calc = nuevaCalculadora();
+        calc.agregarTodos(dias2y3);
+
+        assertMismoResumen("días 2 y 3", resumen(RESUMEN_DIAS_2_Y_3), calc.calcular(HOY));
+    }
+
+    @Test
+    public void ordenDeLlegadaNoCambiaResultado() {
+        ResumenResponse esperado = resumen(RESUMEN_MARZO_DIA_20);
+        for (long semilla = 1; semilla <= 20; semilla++) {
+            List<FichajeResponse> barajado = fichajes(FICHAJES_MARZO);
+            Collections.shuffle(barajado, new Random(semilla));
+
+            CalculadoraResumen calc = nuevaCalculadora();
+            for (FichajeResponse f : barajado) calc.agregar(f);
+
+            assertMismoResumen("semilla " + semilla, esperado, calc.calcular(HOY));
+        }
+    }
+
+    @Test
+    public void elDiaSePasaAlCalcular() {
+        // La misma calculadora, sin reconstruirla, al pasar la medianoche.
+        CalculadoraResumen calc = nuevaCalculadora();
+        calc.agregarTodos(fichajes(FICHAJES_MARZO));
+
+        assertMismoResumen("día 20", resumen(RESUMEN_MARZO_DIA_20), calc.calcular("2026-03-20"));
+        assertMismoResumen("día 21", resumen(RESUMEN_MARZO_DIA_21), calc.calcular("2026-03-21"));
+        assertMismoResumen("otra vez día 20", resumen(RESUMEN_MARZO_DIA_20), calc.calcular("2026-03-20"));
+    }
+
+    @Test
+    public void mesMuyGrande() {
+        // 31 días con 200 pares de 60 s cada uno (un par cada 80 s desde las 06:00): 12.400 fichajes.
+        List<FichajeResponse> mes = new ArrayList<>();
+        int id = 1;
+        for (int dia = 1; dia <= 31; dia++) {
+            for (int par = 0; par < 200; par++) {
+                int entrada = 6 * 3600 + par * 80;
+                mes.add(f(id++, "ENTRADA", fecha(dia, entrada)));
+                mes.add(f(id++, "SALIDA", fecha(dia, entrada + 60)));
+            }
+        }
+        Collections.shuffle(mes, new Random(42));
+
+        CalculadoraResumen calc = nuevaCalculadora();
+        calc.agregarTodos(mes);
+
+        ResumenResponse r = calc.calcular(HOY);
+        assertEquals(31L * 200 * 60, r.getTrabajadasSeg());
+        assertEquals(31L * 200 * 60 - TEORICAS_SEG, r.getSaldoSeg());
+        assertTrue(r.isCalculoConfiable());
+        assertEquals(Long.valueOf(200L * 60), calc.getSegundosPorDia().get("2026-03-15"));
+    }
+
+    @Test
+    public void ignoraDuplicadosOtrosMesesYFechasIlegibles() {
+        CalculadoraResumen calc = nuevaCalculadora();
+        calc.agregar(f(1, "ENTRADA", "2026-03-02T08:00:00"));
+        calc.agregar(f(2, "SALIDA", "2026-03-02T16:30:00"));
+        long antes = calc.getTrabajadasSeg();
+
+        assertFalse(calc.agregar(f(2, "SALIDA", "2026-03-02T18:00:00")));
+        assertFalse(calc.agregar(f(3, "ENTRADA", "2026-02-27T08:00:00")));
+        assertFalse(calc.agregar(f(4, "ENTRADA", null)));
+        assertFalse(calc.agregar(f(5, "ENTRADA", "2026-03-03")));
+        assertFalse(calc.agregar(f(6, "ENTRADA", "2026-03-03T25:00:00")));
+        assertFalse(calc.agregar(f(7, "ENTRADA", "2026-03-03T8:00:00")));
+        assertFalse(calc.agregar(f(8, "ENTRADA", "2026-03-03T08:00:")));
+
+        assertEquals(antes, calc.getTrabajadasSeg());
+        assertEquals(8L * 3600 + 1800, calc.getTrabajadasSeg());
+        assertTrue(calc.calcular(HOY).isCalculoConfiable());
+
+        // Un id rechazado por fecha ilegible no queda marcado como visto.
+        assertTrue(calc.agregar(f(6, "ENTRADA", "2026-03-03T08:00")));
+    }
+
+    @Test
+    public void horaSinSegundosYConZona() {
+        CalculadoraResumen calc = nuevaCalculadora();
+        calc.agregar(f(1, "ENTRADA", "2026-03-02T08:00"));
+        calc.agregar(f(2, "SALIDA", "2026-03-02T12:30:15"));
+        // La hora cuenta tal cual viene; la zona y las fracciones no la mueven.
+        calc.agregar(f(3, "ENTRADA", "2026-03-03T08:00:00.250+01:00"));
+        calc.agregar(f(4, "SALIDA", "2026-03-03 09:00Z"));
+
+        assertEquals(4L * 3600 + 30 * 60 + 15, (long) calc.getSegundosPorDia().get("2026-03-02"));
+        assertEquals(3600L, (long) calc.getSegundosPorDia().get("2026-03-03"));
+    }
+
+    @Test
+    public void reglasDeDiasIncompletos() {
+        CalculadoraResumen calc = nuevaCalculadora();
+        // Día 2: SALIDA sin ENTRADA previa.
+        calc.agregar(f(1, "SALIDA", "2026-03-02T09:00:00"));
+        // Día 3: dos ENTRADA seguidas; solo cuenta el par cerrado.
+        calc.agregar(f(2, "ENTRADA", "2026-03-03T08:00:00"));
+        calc.agregar(f(3, "ENTRADA", "2026-03-03T09:00:00"));
+        calc.agregar(f(4, "SALIDA", "2026-03-03T10:00:00"));
+        // Día 4: ENTRADA abierta en un día ya pasado.
+        calc.agregar(f(5, "ENTRADA", "2026-03-04T08:00:00"));
+        // Hoy: ENTRADA abierta = jornada en marcha, no es incompleto.
+        calc.agregar(f(6, "ENTRADA", HOY + "T08:00:00"));
+
+        ResumenResponse r = calc.calcular(HOY);
+        assertEquals(3600L, r.getTrabajadasSeg());
+        assertEquals(listaDe("2026-03-02", "2026-03-03", "2026-03-04"), r.getDiasIncompletos());
+        assertFalse(r.isCalculoConfiable());
+
+        // Al cerrar el día 4 deja de ser incompleto y suma sus horas.
+        calc.agregar(f(7, "SALIDA", "2026-03-04T12:00:00"));
+        r = calc.calcular(HOY);
+        assertEquals(3600L + 4 * 3600L, r.getTrabajadasSeg());
+        assertEquals(listaDe("2026-03-02", "2026-03-03"), r.getDiasIncompletos());
+    }
+
+    // --- Datos ---
+
+    private static CalculadoraResumen nuevaCalculadora() {
+        return new CalculadoraResumen(ANIO, MES, TEORICAS_SEG);
+    }
+
+    private static List<FichajeResponse> fichajes(String json) {
+        return JsonApi.gson().fromJson(json, LISTA_FICHAJES);
+    }
+
+    private static ResumenResponse resumen(String json) {
+        return JsonApi.gson().fromJson(json, ResumenResponse.class);
+    }
+
+    private static FichajeResponse f(int id, String tipo, String fechaHora) {
+        return new FichajeResponse(id, tipo, fechaHora, 40.0, -3.0);
+    }
+
+    private static String fecha(int dia, int segundoDelDia) {
+        return String.format(Locale.US, "%04d-%02d-%02dT%02d:%02d:%02d", ANIO, MES, dia,
+                segundoDelDia / 3600, (segundoDelDia / 60) % 60, segundoDelDia % 60);
+    }
+
+    private static List<String> listaDe(String... dias) {
+        List<String> l = new ArrayList<>();
+        Collections.addAll(l, dias);
+        return l;
+    }
+
+    private static void assertMismoResumen(String caso, ResumenResponse servidor, ResumenResponse local) {
+        assertEquals(caso, servidor.getMes(), local.getMes());
+        assertEquals(caso, servidor.getTeoricasSeg(), local.getTeoricasSeg());
+        assertEquals(caso, servidor.getTrabajadasSeg(), local.getTrabajadasSeg());
+        assertEquals(caso, servidor.getSaldoSeg(), local.getSaldoSeg());
+        assertEquals(caso, servidor.getTeoricas(), local.getTeoricas(), 0.0);
+        assertEquals(caso, servidor.getTrabajadas(), local.getTrabajadas(), 0.0);
+        assertEquals(caso, servidor.getSaldo(), local.getSaldo(), 0.0);
+        assertEquals(caso, servidor.getDiasIncompletos(), local.getDiasIncompletos());
+        assertEquals(caso, servidor.getNumDiasIncompletos(), local.getNumDiasIncompletos());
+        assertEquals(caso, servidor.isCalculoConfiable(), local.isCalculoConfiable());
+    }
+}